@@ -0,0 +1,278 @@
+package org.paumard.parallelstream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+// Text pipelines that work on the UTF-8 bytes of the lines, in a memory-mapped file or in a byte[] arena,
+// instead of decoding a String per line. Lines are cut on '\n', a trailing '\r' is removed, like
+// MappedLineSpliterator does. A line made of ASCII bytes only is processed byte per byte, without
+// any allocation. Any other line falls back to the String path, with the same result.
+// The bytes are cut in chunks that end on a newline, processed in parallel.
+// Case conversions use Locale.ROOT, so the ASCII and the String paths always agree.
+public class AsciiLines {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    public static final int LETTERS = 0;
+    public static final int DIGITS = 1;
+    public static final int WHITESPACES = 2;
+    public static final int OTHERS = 3;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_CLASSES[c] = (byte) charClass(c);
+        }
+    }
+
+    private final ByteBuffer[] regions;
+    // chunk i is [chunkStarts[i], chunkEnds[i]) in regions[chunkRegions[i]]
+    private final int[] chunkRegions;
+    private final int[] chunkStarts;
+    private final int[] chunkEnds;
+
+    private AsciiLines(ByteBuffer... regions) {
+        this.regions = regions;
+        IntArrayList chunkRegions = new IntArrayList();
+        IntArrayList chunkStarts = new IntArrayList();
+        IntArrayList chunkEnds = new IntArrayList();
+        for (int region = 0; region < regions.length; region++) {
+            ByteBuffer buffer = regions[region];
+            int limit = buffer.limit();
+            int start = 0;
+            while (start < limit) {
+                int end = (int) Math.min(limit, (long) start + CHUNK_SIZE);
+                end = end == limit ? limit : MappedLineSpliterator.nextLineStart(buffer, end, limit);
+                chunkRegions.add(region);
+                chunkStarts.add(start);
+                chunkEnds.add(end);
+                start = end;
+            }
+        }
+        this.chunkRegions = chunkRegions.toArray();
+        this.chunkStarts = chunkStarts.toArray();
+        this.chunkEnds = chunkEnds.toArray();
+    }
+
+    public static AsciiLines map(Path path) throws IOException {
+        return new AsciiLines(MappedLineSpliterator.map(path, MappedLineSpliterator.MAX_REGION_SIZE));
+    }
+
+    // The arena is used as is: toUpperCaseInPlace() writes into it.
+    public static AsciiLines of(byte[] arena) {
+        return new AsciiLines(ByteBuffer.wrap(arena));
+    }
+
+    public long lineCount() {
+        return aggregate(LINE_COUNT)[0];
+    }
+
+    // Same as lines.map(line -> line.toUpperCase(Locale.ROOT)).mapToInt(String::length).sum()
+    public long upperCaseLengthSum() {
+        return aggregate(UPPER_CASE_LENGTH)[0];
+    }
+
+    // Same as lines.map(line -> line.toUpperCase(Locale.ROOT)).mapToLong(String::hashCode).sum()
+    public long upperCaseHashSum() {
+        return aggregate(UPPER_CASE_HASH)[0];
+    }
+
+    // Number of chars of each class, indexed by LETTERS, DIGITS, WHITESPACES and OTHERS.
+    // The chars are the ones of the String of each line: a surrogate pair counts as 2 OTHERS.
+    public long[] charClassCounts() {
+        return aggregate(CHAR_CLASSES);
+    }
+
+    // Upper cases the ASCII lines in place, and leaves the other lines unchanged.
+    // Returns the number of lines left unchanged. Fails on a read-only mapped file.
+    public long toUpperCaseInPlace() {
+        return IntStream.range(0, chunkStarts.length)
+                .parallel()
+                .mapToLong(this::toUpperCaseInPlace)
+                .sum();
+    }
+
+    private long toUpperCaseInPlace(int chunk) {
+        ByteBuffer buffer = regions[chunkRegions[chunk]];
+        int end = chunkEnds[chunk];
+        long skipped = 0L;
+        int start = chunkStarts[chunk];
+        while (start < end) {
+            int next = MappedLineSpliterator.nextLineStart(buffer, start, end);
+            int lineEnd = lineEnd(buffer, start, next);
+            if (isAscii(buffer, start, lineEnd)) {
+                for (int i = start; i < lineEnd; i++) {
+                    byte b = buffer.get(i);
+                    if (b >= 'a' && b <= 'z') {
+                        buffer.put(i, (byte) (b - ('a' - 'A')));
+                    }
+                }
+            } else {
+                skipped++;
+            }
+            start = next;
+        }
+        return skipped;
+    }
+
+    private long[] aggregate(LineKernel kernel) {
+        return IntStream.range(0, chunkStarts.length)
+                .parallel()
+                .mapToObj(chunk -> aggregate(kernel, chunk))
+                .reduce((counts1, counts2) -> {
+                    for (int i = 0; i < counts1.length; i++) {
+                        counts1[i] += counts2[i];
+                    }
+                    return counts1;
+                })
+                .orElseGet(() -> new long[kernel.width()]);
+    }
+
+    private long[] aggregate(LineKernel kernel, int chunk) {
+        ByteBuffer buffer = regions[chunkRegions[chunk]];
+        int end = chunkEnds[chunk];
+        long[] counts = new long[kernel.width()];
+        int start = chunkStarts[chunk];
+        while (start < end) {
+            int next = MappedLineSpliterator.nextLineStart(buffer, start, end);
+            int lineEnd = lineEnd(buffer, start, next);
+            if (isAscii(buffer, start, lineEnd)) {
+                kernel.ascii(buffer, start, lineEnd, counts);
+            } else {
+                kernel.string(decode(buffer, start, lineEnd), counts);
+            }
+            start = next;
+        }
+        return counts;
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int start, int next) {
+        int end = next;
+        if (end > start && buffer.get(end - 1) == LF) {
+            end--;
+        }
+        if (end > start && buffer.get(end - 1) == CR) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isAscii(ByteBuffer buffer, int from, int to) {
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            bits |= buffer.get(i);
+        }
+        return bits >= 0;
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            bytes[i - from] = buffer.get(i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int upperCase(byte b) {
+        return b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b;
+    }
+
+    private static int charClass(char c) {
+        if (Character.isLetter(c)) {
+            return LETTERS;
+        }
+        if (Character.isDigit(c)) {
+            return DIGITS;
+        }
+        if (Character.isWhitespace(c)) {
+            return WHITESPACES;
+        }
+        return OTHERS;
+    }
+
+    // Computes its result in a long[] of width() counters, for an ASCII line given by its bytes,
+    // or for any line given as a String.
+    private interface LineKernel {
+
+        int width();
+
+        void ascii(ByteBuffer buffer, int from, int to, long[] counts);
+
+        void string(String line, long[] counts);
+    }
+
+    private static final LineKernel LINE_COUNT = new LineKernel() {
+
+        public int width() {
+            return 1;
+        }
+
+        public void ascii(ByteBuffer buffer, int from, int to, long[] counts) {
+            counts[0]++;
+        }
+
+        public void string(String line, long[] counts) {
+            counts[0]++;
+        }
+    };
+
+    private static final LineKernel UPPER_CASE_LENGTH = new LineKernel() {
+
+        public int width() {
+            return 1;
+        }
+
+        public void ascii(ByteBuffer buffer, int from, int to, long[] counts) {
+            counts[0] += to - from;
+        }
+
+        public void string(String line, long[] counts) {
+            counts[0] += line.toUpperCase(Locale.ROOT).length();
+        }
+    };
+
+    private static final LineKernel UPPER_CASE_HASH = new LineKernel() {
+
+        public int width() {
+            return 1;
+        }
+
+        public void ascii(ByteBuffer buffer, int from, int to, long[] counts) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + upperCase(buffer.get(i));
+            }
+            counts[0] += hash;
+        }
+
+        public void string(String line, long[] counts) {
+            counts[0] += line.toUpperCase(Locale.ROOT).hashCode();
+        }
+    };
+
+    private static final LineKernel CHAR_CLASSES = new LineKernel() {
+
+        public int width() {
+            return 4;
+        }
+
+        public void ascii(ByteBuffer buffer, int from, int to, long[] counts) {
+            for (int i = from; i < to; i++) {
+                counts[ASCII_CLASSES[buffer.get(i)]]++;
+            }
+        }
+
+        public void string(String line, long[] counts) {
+            for (int i = 0; i < line.length(); i++) {
+                counts[charClass(line.charAt(i))]++;
+            }
+        }
+    };
+}
@@ -0,0 +1,259 @@
+package org.paumard.parallelstream;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runs a selection of the JMH suites, keeps the JSON results in results/<commit>-<jvm>, and compares
+// them with a stored baseline. A benchmark is a regression when it is slower than the baseline by more
+// than the threshold, and the two confidence intervals do not overlap.
+//
+// java -cp target\benchmarks.jar org.paumard.parallelstream.BenchmarkHarness [options] M04_Sum M04_Max ...
+//   --results <dir>       where to write the results, default results
+//   --baseline <file>     baseline to compare with, default <results>/baseline-<jvm>.tsv
+//   --threshold <percent> tolerated slowdown, default 5
+//   --update-baseline     replace the baseline with this run
+//   --quick               1 fork, 3 warmup and 3 measurement iterations
+public class BenchmarkHarness {
+
+    private static final String HEADER = "benchmark\tmode\tscore\tlow\thigh\tunit";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        Path resultsDirectory = Path.of("results");
+        Path baselineFile = null;
+        double threshold = 5d;
+        boolean updateBaseline = false;
+        boolean quick = false;
+        List<String> suites = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--results":
+                    resultsDirectory = Path.of(args[++i]);
+                    break;
+                case "--baseline":
+                    baselineFile = Path.of(args[++i]);
+                    break;
+                case "--threshold":
+                    threshold = Double.parseDouble(args[++i]);
+                    break;
+                case "--update-baseline":
+                    updateBaseline = true;
+                    break;
+                case "--quick":
+                    quick = true;
+                    break;
+                default:
+                    suites.add(args[i]);
+            }
+        }
+        if (suites.isEmpty()) {
+            System.err.println("Usage: BenchmarkHarness [--results dir] [--baseline file] [--threshold percent] " +
+                    "[--update-baseline] [--quick] suite...");
+            System.exit(2);
+        }
+
+        String jvm = jvm();
+        Path runDirectory = resultsDirectory.resolve(commit() + "-" + jvm);
+        Files.createDirectories(runDirectory);
+        if (baselineFile == null) {
+            baselineFile = resultsDirectory.resolve("baseline-" + jvm + ".tsv");
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .resultFormat(ResultFormatType.JSON)
+                .result(runDirectory.resolve("results.json").toString());
+        suites.forEach(options::include);
+        if (quick) {
+            options.forks(1).warmupIterations(3).measurementIterations(3);
+        }
+        Collection<RunResult> runResults = new Runner(options.build()).run();
+
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (RunResult runResult : runResults) {
+            Score score = Score.of(runResult);
+            scores.put(score.key, score);
+        }
+        Path summaryFile = runDirectory.resolve("summary.tsv");
+        write(scores, summaryFile);
+        System.out.println("Results written to " + runDirectory);
+
+        if (updateBaseline || Files.notExists(baselineFile)) {
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            Files.copy(summaryFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+
+        Map<String, Score> baseline = read(baselineFile);
+        int regressions = compare(baseline, scores, threshold);
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s) against " + baselineFile);
+            System.exit(1);
+        }
+        System.out.println("No regression against " + baselineFile);
+    }
+
+    static int compare(Map<String, Score> baseline, Map<String, Score> scores, double threshold) {
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "Status");
+        for (Score score : scores.values()) {
+            Score reference = baseline.get(score.key);
+            if (reference == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", score.key, "-", score.score, "-", "NEW");
+                continue;
+            }
+            if (reference.score == 0d && score.unit.equals(reference.unit)) {
+                // no percentage against a zero score
+                System.out.printf("%-90s %14.3f %14.3f %9s  %s%n",
+                        score.key, reference.score, score.score, "-", "ZERO BASELINE");
+                continue;
+            }
+            double slowdown = score.slowdownPercent(reference);
+            String status;
+            if (!score.unit.equals(reference.unit)) {
+                status = "UNIT CHANGED (" + reference.unit + " -> " + score.unit + ")";
+            } else if (slowdown > threshold && !score.overlaps(reference)) {
+                status = "REGRESSION";
+                regressions++;
+            } else if (slowdown < -threshold && !score.overlaps(reference)) {
+                status = "IMPROVEMENT";
+            } else {
+                status = "OK";
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%n",
+                    score.key, reference.score, score.score, slowdown, status);
+        }
+        // renamed or removed benchmarks
+        for (Score reference : baseline.values()) {
+            if (!scores.containsKey(reference.key)) {
+                System.out.printf("%-90s %14.3f %14s %9s  %s%n", reference.key, reference.score, "-", "-", "MISSING");
+            }
+        }
+        return regressions;
+    }
+
+    private static void write(Map<String, Score> scores, Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        scores.values().forEach(score -> lines.add(score.toLine()));
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.equals(HEADER)) {
+                continue;
+            }
+            Score score = Score.parse(line);
+            scores.put(score.key, score);
+        }
+        return scores;
+    }
+
+    static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD")
+                    .redirectErrorStream(true)
+                    .start();
+            String commit;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(git.getInputStream()))) {
+                commit = reader.readLine();
+            }
+            if (git.waitFor() == 0 && commit != null && !commit.isBlank()) {
+                return commit.trim();
+            }
+        } catch (IOException e) {
+            // no git on this machine
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+
+    static String jvm() {
+        return sanitize(System.getProperty("java.vendor") + "-" + System.getProperty("java.version"));
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]+", "_");
+    }
+
+    static final class Score {
+
+        final String key;
+        final Mode mode;
+        final double score;
+        final double low;
+        final double high;
+        final String unit;
+
+        Score(String key, Mode mode, double score, double low, double high, String unit) {
+            this.key = key;
+            this.mode = mode;
+            this.score = score;
+            this.low = low;
+            this.high = high;
+            this.unit = unit;
+        }
+
+        static Score of(RunResult runResult) {
+            BenchmarkParams params = runResult.getParams();
+            StringBuilder key = new StringBuilder(params.getBenchmark());
+            for (String param : params.getParamsKeys()) {
+                key.append(':').append(param).append('=').append(params.getParam(param));
+            }
+            Result<?> result = runResult.getPrimaryResult();
+            double[] confidence = result.getScoreConfidence();
+            double low = Double.isNaN(confidence[0]) ? result.getScore() : confidence[0];
+            double high = Double.isNaN(confidence[1]) ? result.getScore() : confidence[1];
+            return new Score(key.toString(), params.getMode(), result.getScore(), low, high, result.getScoreUnit());
+        }
+
+        static Score parse(String line) {
+            String[] fields = line.split("\t");
+            return new Score(fields[0], Mode.deepValueOf(fields[1]),
+                    Double.parseDouble(fields[2]), Double.parseDouble(fields[3]), Double.parseDouble(fields[4]),
+                    fields[5]);
+        }
+
+        String toLine() {
+            return String.join("\t", key, mode.shortLabel(),
+                    Double.toString(score), Double.toString(low), Double.toString(high), unit);
+        }
+
+        boolean overlaps(Score other) {
+            return low <= other.high && other.low <= high;
+        }
+
+        // Positive when this score is worse than the reference: higher times, or lower throughput.
+        // 0 against a zero reference score, which has no meaningful percentage.
+        double slowdownPercent(Score reference) {
+            if (reference.score == 0d) {
+                return 0d;
+            }
+            double change = 100d * (score - reference.score) / reference.score;
+            return mode == Mode.Throughput ? -change : change;
+        }
+    }
+}
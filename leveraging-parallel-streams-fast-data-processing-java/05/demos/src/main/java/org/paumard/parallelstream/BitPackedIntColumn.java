@@ -0,0 +1,258 @@
+package org.paumard.parallelstream;
+
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+// An immutable int column compressed with frame of reference and bit packing: each value is stored
+// as value - min, on just enough bits for max - min, one after the other in a long[].
+// Values 0 to 99 take 7 bits each, instead of a reference to a 16-byte Integer.
+// The column is cut in chunks of CHUNK_SIZE values. CHUNK_SIZE is a multiple of 64, so a chunk
+// always starts on a word: chunks are packed and decoded in parallel, with no shared word.
+public class BitPackedIntColumn {
+
+    public static final int CHUNK_SIZE = 4096;
+
+    private final int size;
+    private final int reference;
+    private final int bitWidth;
+    private final long mask;
+    private final long[] words;
+
+    private BitPackedIntColumn(int[] values) {
+        this.size = values.length;
+        int min = IntStream.of(values).parallel().min().orElse(0);
+        int max = IntStream.of(values).parallel().max().orElse(0);
+        this.reference = min;
+        long range = (long) max - min;
+        this.bitWidth = 64 - Long.numberOfLeadingZeros(range);
+        this.mask = bitWidth == 0 ? 0L : -1L >>> (64 - bitWidth);
+        this.words = new long[(int) (((long) size * bitWidth + 63) >>> 6)];
+        IntStream.range(0, chunkCount()).parallel().forEach(chunk -> pack(values, chunk));
+    }
+
+    public static BitPackedIntColumn of(int[] values) {
+        return new BitPackedIntColumn(values);
+    }
+
+    public static BitPackedIntColumn of(IntArrayList list) {
+        return new BitPackedIntColumn(list.toArray());
+    }
+
+    private void pack(int[] values, int chunk) {
+        if (bitWidth == 0) {
+            return;
+        }
+        long bit = (long) chunkStart(chunk) * bitWidth;
+        for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++, bit += bitWidth) {
+            long delta = ((long) values[i] - reference) & mask;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            words[word] |= delta << shift;
+            if (shift + bitWidth > 64) {
+                words[word + 1] |= delta >>> (64 - shift);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int bitWidth() {
+        return bitWidth;
+    }
+
+    public long sizeInBytes() {
+        return 8L * words.length;
+    }
+
+    public int chunkCount() {
+        return (int) (((long) size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    private int chunkStart(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    private int chunkEnd(int chunk) {
+        return Math.min(size, chunkStart(chunk) + CHUNK_SIZE);
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return (int) (reference + delta(index));
+    }
+
+    private long delta(int index) {
+        if (bitWidth == 0) {
+            return 0L;
+        }
+        long bit = (long) index * bitWidth;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long delta = words[word] >>> shift;
+        if (shift + bitWidth > 64) {
+            delta |= words[word + 1] << (64 - shift);
+        }
+        return delta & mask;
+    }
+
+    public long sum() {
+        return IntStream.range(0, chunkCount())
+                .parallel()
+                .mapToLong(this::sumOfDeltas)
+                .sum() + (long) reference * size;
+    }
+
+    public int max() {
+        return (int) (reference + IntStream.range(0, chunkCount())
+                .parallel()
+                .mapToLong(this::maxOfDeltas)
+                .max()
+                .orElseThrow());
+    }
+
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("Empty column");
+        }
+        return reference;
+    }
+
+    public long count(IntPredicate predicate) {
+        return IntStream.range(0, chunkCount())
+                .parallel()
+                .mapToLong(chunk -> count(chunk, predicate))
+                .sum();
+    }
+
+    // Counts the values in [min, max]: the bounds are moved to the packed domain, and the deltas
+    // are compared without being decoded.
+    public long countInRange(int min, int max) {
+        long low = Math.max(0L, (long) min - reference);
+        long high = Math.min(mask, (long) max - reference);
+        if (low > high) {
+            return 0L;
+        }
+        if (low == 0L && high == mask) {
+            return size;
+        }
+        return IntStream.range(0, chunkCount())
+                .parallel()
+                .mapToLong(chunk -> countDeltasInRange(chunk, low, high))
+                .sum();
+    }
+
+    // Values that match the predicate, in encounter order.
+    public int[] filter(IntPredicate predicate) {
+        return IntStream.range(0, chunkCount())
+                .parallel()
+                .mapToObj(chunk -> filter(chunk, predicate))
+                .flatMapToInt(IntArrayList::stream)
+                .toArray();
+    }
+
+    public IntStream stream() {
+        return IntStream.range(0, size).map(this::get);
+    }
+
+    public IntStream parallelStream() {
+        return stream().parallel();
+    }
+
+    // The decoding loops below read the words of a chunk one after the other, and carry the position
+    // of the next value in the current word.
+
+    private long sumOfDeltas(int chunk) {
+        if (bitWidth == 0) {
+            return 0L;
+        }
+        long sum = 0L;
+        long bit = (long) chunkStart(chunk) * bitWidth;
+        int word = (int) (bit >>> 6);
+        int shift = 0;
+        for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+            long delta = words[word] >>> shift;
+            shift += bitWidth;
+            if (shift >= 64) {
+                shift -= 64;
+                word++;
+                if (shift > 0) {
+                    delta |= words[word] << (bitWidth - shift);
+                }
+            }
+            sum += delta & mask;
+        }
+        return sum;
+    }
+
+    private long maxOfDeltas(int chunk) {
+        if (bitWidth == 0) {
+            return 0L;
+        }
+        long max = 0L;
+        long bit = (long) chunkStart(chunk) * bitWidth;
+        int word = (int) (bit >>> 6);
+        int shift = 0;
+        for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+            long delta = words[word] >>> shift;
+            shift += bitWidth;
+            if (shift >= 64) {
+                shift -= 64;
+                word++;
+                if (shift > 0) {
+                    delta |= words[word] << (bitWidth - shift);
+                }
+            }
+            max = Math.max(max, delta & mask);
+        }
+        return max;
+    }
+
+    private long countDeltasInRange(int chunk, long low, long high) {
+        long count = 0L;
+        long bit = (long) chunkStart(chunk) * bitWidth;
+        int word = (int) (bit >>> 6);
+        int shift = 0;
+        for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+            long delta = words[word] >>> shift;
+            shift += bitWidth;
+            if (shift >= 64) {
+                shift -= 64;
+                word++;
+                if (shift > 0) {
+                    delta |= words[word] << (bitWidth - shift);
+                }
+            }
+            delta &= mask;
+            if (delta >= low && delta <= high) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long count(int chunk, IntPredicate predicate) {
+        long count = 0L;
+        for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+            if (predicate.test((int) (reference + delta(i)))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private IntArrayList filter(int chunk, IntPredicate predicate) {
+        IntArrayList matches = new IntArrayList();
+        for (int i = chunkStart(chunk), end = chunkEnd(chunk); i < end; i++) {
+            int value = (int) (reference + delta(i));
+            if (predicate.test(value)) {
+                matches.add(value);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,95 @@
+package org.paumard.parallelstream;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// An int column with min / max statistics per fixed-size chunk (a zone map).
+// Range filters skip every chunk whose [min, max] cannot match; the surviving chunks
+// are streamed in encounter order, so findFirst() stays correct in parallel.
+public class ChunkedIntColumn {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final int[] values;
+    private final int chunkSize;
+    private final int[] chunkMin;
+    private final int[] chunkMax;
+
+    public ChunkedIntColumn(int[] values) {
+        this(values, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ChunkedIntColumn(int[] values, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Illegal chunk size: " + chunkSize);
+        }
+        this.values = values;
+        this.chunkSize = chunkSize;
+        int chunkCount = (int) (((long) values.length + chunkSize - 1) / chunkSize);
+        this.chunkMin = new int[chunkCount];
+        this.chunkMax = new int[chunkCount];
+        IntStream.range(0, chunkCount).parallel().forEach(this::computeStatistics);
+    }
+
+    public static ChunkedIntColumn of(IntArrayList list) {
+        return new ChunkedIntColumn(list.toArray());
+    }
+
+    private void computeStatistics(int chunk) {
+        int from = chunkStart(chunk);
+        int to = chunkEnd(chunk);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        chunkMin[chunk] = min;
+        chunkMax[chunk] = max;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int chunkCount() {
+        return chunkMin.length;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(values);
+    }
+
+    public IntStream rangeFilter(int minInclusive, int maxInclusive) {
+        return Arrays.stream(candidateChunks(minInclusive, maxInclusive))
+                .flatMap(chunk -> Arrays.stream(values, chunkStart(chunk), chunkEnd(chunk))
+                        .filter(value -> value >= minInclusive && value <= maxInclusive));
+    }
+
+    public IntStream rangeFilterIndices(int minInclusive, int maxInclusive) {
+        return Arrays.stream(candidateChunks(minInclusive, maxInclusive))
+                .flatMap(chunk -> IntStream.range(chunkStart(chunk), chunkEnd(chunk))
+                        .filter(index -> values[index] >= minInclusive && values[index] <= maxInclusive));
+    }
+
+    int[] candidateChunks(int minInclusive, int maxInclusive) {
+        if (minInclusive > maxInclusive) {
+            return new int[0];
+        }
+        return IntStream.range(0, chunkCount())
+                .filter(chunk -> chunkMin[chunk] <= maxInclusive && chunkMax[chunk] >= minInclusive)
+                .toArray();
+    }
+
+    private int chunkStart(int chunk) {
+        return chunk * chunkSize;
+    }
+
+    private int chunkEnd(int chunk) {
+        return (int) Math.min(values.length, (long) chunk * chunkSize + chunkSize);
+    }
+}
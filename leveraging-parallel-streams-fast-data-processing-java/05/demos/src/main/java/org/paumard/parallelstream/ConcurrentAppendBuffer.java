@@ -0,0 +1,105 @@
+package org.paumard.parallelstream;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Lock-free append-only buffer, that many threads can fill at the same time.
+// A thread claims a position with a single getAndIncrement(), then writes its element in the segment
+// of this position. Segment k has base << k slots, so 32 segments cover any int position. Segment 0 is
+// allocated up front; the others are created by the first thread that needs them, with a CAS.
+// The elements can be read once all the writers are done, for instance after a parallel stream returns.
+class ConcurrentAppendBuffer<T> {
+
+    private static final int SEGMENTS = 32;
+
+    private final int baseShift;
+    private final AtomicReferenceArray<Object[]> segments = new AtomicReferenceArray<>(SEGMENTS);
+    private final AtomicInteger size = new AtomicInteger();
+
+    ConcurrentAppendBuffer(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        int base = expectedSize <= 16 ? 16 : Math.min(1 << 30, Integer.highestOneBit(expectedSize - 1) << 1);
+        this.baseShift = Integer.numberOfTrailingZeros(base);
+        segments.set(0, new Object[base]);
+    }
+
+    void add(T element) {
+        int position = size.getAndIncrement();
+        if (position < 0) {
+            size.getAndDecrement();
+            throw new OutOfMemoryError("Buffer full");
+        }
+        int segment = segment(position);
+        Object[] values = segments.get(segment);
+        if (values == null) {
+            values = allocate(segment);
+        }
+        values[offset(position, segment)] = element;
+    }
+
+    private Object[] allocate(int segment) {
+        // positions are ints: the last segments do not need to be full
+        long length = Math.min(1L << (baseShift + segment), Integer.MAX_VALUE - start(segment));
+        Object[] values = new Object[(int) length];
+        if (segments.compareAndSet(segment, null, values)) {
+            return values;
+        }
+        return segments.get(segment);
+    }
+
+    // Segment k starts at position base * (2^k - 1).
+    private int segment(int position) {
+        long q = ((long) position >>> baseShift) + 1L;
+        return 63 - Long.numberOfLeadingZeros(q);
+    }
+
+    private long start(int segment) {
+        return ((1L << segment) - 1L) << baseShift;
+    }
+
+    private int offset(int position, int segment) {
+        return (int) (position - start(segment));
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        Objects.checkIndex(index, size());
+        int segment = segment(index);
+        return (T) segments.get(segment)[offset(index, segment)];
+    }
+
+    // Read-only view of the elements, to be taken once the writers are done.
+    List<T> asList() {
+        return new View(size());
+    }
+
+    private final class View extends AbstractList<T> implements RandomAccess {
+
+        private final int size;
+
+        View(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            return ConcurrentAppendBuffer.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
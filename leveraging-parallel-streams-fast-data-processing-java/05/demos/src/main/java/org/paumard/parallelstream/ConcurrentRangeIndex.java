@@ -0,0 +1,172 @@
+package org.paumard.parallelstream;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// A mutable int column indexed for prefix and range queries: sums come from a Fenwick tree,
+// maxima from a segment tree, both answered in O(log n) instead of a pass over the first n values.
+// Writers update single values concurrently, without any lock:
+// - the leaves of the segment tree hold the values. A leaf is changed with a CAS, that is the
+//   point where an update takes place, and the difference is then added to the Fenwick tree.
+// - a node of the segment tree holds a version in its high 32 bits, and the max of its children
+//   in its low 32 bits. A writer refreshes each node on the path to the root: it reads the children,
+//   and CASes the node from the version it read to the next one. If the CAS fails, another writer
+//   refreshed the node in between, maybe from older children, so the refresh is done once more.
+//   The version makes sure a CAS fails even if the node was set back to the same max.
+// A prefix sum sees an update entirely or not at all: exactly one node of its path covers a given
+// index. A query that runs concurrently with writers may see some of them and not the others.
+public class ConcurrentRangeIndex {
+
+    private final int size;
+    // Fenwick tree, 1-based: sums[i] is the sum of the values in (i - lowestOneBit(i), i]
+    private final AtomicLongArray sums;
+    // segment tree: node 1 is the root, nodes i * 2 and i * 2 + 1 are the children of node i,
+    // value i is in leaf capacity + i
+    private final int capacity;
+    private final AtomicLongArray nodes;
+
+    private ConcurrentRangeIndex(int[] values) {
+        this.size = values.length;
+        this.capacity = size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+
+        long[] sums = new long[size + 1];
+        for (int i = 1; i <= size; i++) {
+            sums[i] += values[i - 1];
+            int parent = i + Integer.lowestOneBit(i);
+            if (parent <= size) {
+                sums[parent] += sums[i];
+            }
+        }
+        this.sums = new AtomicLongArray(sums);
+
+        long[] nodes = new long[2 * capacity];
+        IntStream.range(0, capacity)
+                .parallel()
+                .forEach(i -> nodes[capacity + i] = node(0, i < size ? values[i] : Integer.MIN_VALUE));
+        for (int i = capacity - 1; i > 0; i--) {
+            nodes[i] = node(0, Math.max(value(nodes[2 * i]), value(nodes[2 * i + 1])));
+        }
+        this.nodes = new AtomicLongArray(nodes);
+    }
+
+    public static ConcurrentRangeIndex of(int[] values) {
+        return new ConcurrentRangeIndex(values);
+    }
+
+    public static ConcurrentRangeIndex of(IntArrayList list) {
+        return new ConcurrentRangeIndex(list.toArray());
+    }
+
+    private static long node(int version, int value) {
+        return ((long) version << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    private static int version(long node) {
+        return (int) (node >>> 32);
+    }
+
+    private static int value(long node) {
+        return (int) node;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        Objects.checkIndex(index, size);
+        return value(nodes.get(capacity + index));
+    }
+
+    // Returns the previous value.
+    public int set(int index, int value) {
+        Objects.checkIndex(index, size);
+        int leaf = capacity + index;
+        long current;
+        do {
+            current = nodes.get(leaf);
+        } while (!nodes.compareAndSet(leaf, current, node(version(current) + 1, value)));
+        int previous = value(current);
+        addToSums(index, (long) value - previous);
+        refreshPath(leaf);
+        return previous;
+    }
+
+    // Returns the new value.
+    public int add(int index, int delta) {
+        Objects.checkIndex(index, size);
+        int leaf = capacity + index;
+        long current;
+        int value;
+        do {
+            current = nodes.get(leaf);
+            value = value(current) + delta;
+        } while (!nodes.compareAndSet(leaf, current, node(version(current) + 1, value)));
+        addToSums(index, (long) value - value(current));
+        refreshPath(leaf);
+        return value;
+    }
+
+    private void addToSums(int index, long delta) {
+        if (delta == 0L) {
+            return;
+        }
+        for (int i = index + 1; i <= size; i += Integer.lowestOneBit(i)) {
+            sums.getAndAdd(i, delta);
+        }
+    }
+
+    private void refreshPath(int leaf) {
+        for (int i = leaf >>> 1; i > 0; i >>>= 1) {
+            if (!refresh(i)) {
+                refresh(i);
+            }
+        }
+    }
+
+    private boolean refresh(int i) {
+        long current = nodes.get(i);
+        int max = Math.max(value(nodes.get(2 * i)), value(nodes.get(2 * i + 1)));
+        return nodes.compareAndSet(i, current, node(version(current) + 1, max));
+    }
+
+    // Sum of the first n values.
+    public long prefixSum(int n) {
+        Objects.checkFromToIndex(0, n, size);
+        long sum = 0L;
+        for (int i = n; i > 0; i -= Integer.lowestOneBit(i)) {
+            sum += sums.get(i);
+        }
+        return sum;
+    }
+
+    // Sum of the values in [from, to).
+    public long rangeSum(int from, int to) {
+        Objects.checkFromToIndex(from, to, size);
+        return prefixSum(to) - prefixSum(from);
+    }
+
+    // Max of the first n values, n > 0.
+    public int prefixMax(int n) {
+        return rangeMax(0, n);
+    }
+
+    // Max of the values in [from, to), from < to.
+    public int rangeMax(int from, int to) {
+        Objects.checkFromToIndex(from, to, size);
+        if (from == to) {
+            throw new IllegalArgumentException("Empty range: [" + from + ", " + to + ")");
+        }
+        int max = Integer.MIN_VALUE;
+        for (int low = capacity + from, high = capacity + to; low < high; low >>>= 1, high >>>= 1) {
+            if ((low & 1) == 1) {
+                max = Math.max(max, value(nodes.get(low++)));
+            }
+            if ((high & 1) == 1) {
+                max = Math.max(max, value(nodes.get(--high)));
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,114 @@
+package org.paumard.parallelstream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Random int datasets for the benchmarks, generated once and shared by all the JMH forks.
+// A dataset is identified by its name, size, bound and seed, and stored as raw little-endian ints
+// in target/fixtures (or in the directory given by the fixtures.dir system property).
+// It is generated in parallel directly in a mapped temporary file, one SplittableRandom per block,
+// all split from the seed up front: the content does not depend on the number of threads.
+// The temporary file is then moved to its final name, so a fork never sees a partial file.
+public class FixtureStore {
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("fixtures.dir", "target/fixtures"));
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private FixtureStore() {
+    }
+
+    // size ints between 0 (inclusive) and bound (exclusive), or any int if bound is 0.
+    public static IntBuffer ints(String name, int size, int bound, long seed) {
+        if (size < 0 || bound < 0) {
+            throw new IllegalArgumentException("Illegal size or bound: " + size + ", " + bound);
+        }
+        Path file = DIRECTORY.resolve(name + "-" + size + "-" + bound + "-" + seed + ".bin");
+        try {
+            if (Files.notExists(file) || Files.size(file) != 4L * size) {
+                generate(file, size, bound, seed);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0L, 4L * size)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asIntBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void generate(Path file, int size, int bound, long seed) throws IOException {
+        Files.createDirectories(DIRECTORY);
+        Path temporary = Files.createTempFile(DIRECTORY, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0L, 4L * size);
+                IntBuffer values = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                int blocks = (int) (((long) size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+                SplittableRandom root = new SplittableRandom(seed);
+                SplittableRandom[] randoms = new SplittableRandom[blocks];
+                for (int block = 0; block < blocks; block++) {
+                    randoms[block] = root.split();
+                }
+                IntStream.range(0, blocks)
+                        .parallel()
+                        .forEach(block -> {
+                            SplittableRandom random = randoms[block];
+                            int end = (int) Math.min(size, (long) (block + 1) * BLOCK_SIZE);
+                            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                                values.put(i, bound == 0 ? random.nextInt() : random.nextInt(bound));
+                            }
+                        });
+                mapped.force();
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public static int[] toArray(IntBuffer values) {
+        int[] array = new int[values.limit()];
+        values.duplicate().rewind().get(array);
+        return array;
+    }
+
+    public static IntArrayList toIntArrayList(IntBuffer values) {
+        return IntArrayList.of(toArray(values));
+    }
+
+    public static List<Integer> toList(IntBuffer values) {
+        List<Integer> list = new ArrayList<>(values.limit());
+        for (int i = 0; i < values.limit(); i++) {
+            list.add(values.get(i));
+        }
+        return list;
+    }
+
+    public static Set<Integer> toSet(IntBuffer values) {
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < values.limit(); i++) {
+            set.add(values.get(i));
+        }
+        return set;
+    }
+}
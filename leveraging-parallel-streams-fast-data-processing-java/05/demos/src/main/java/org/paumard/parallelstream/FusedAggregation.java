@@ -0,0 +1,207 @@
+package org.paumard.parallelstream;
+
+import java.util.EnumSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+// Computes a set of aggregates of an int or long stream in a single pass, instead of one pass
+// per aggregate. Each leaf task of a parallel stream fills its own Accumulator, made of primitive
+// fields only; two accumulators are merged field by field, so nothing is boxed in the combine step.
+// COUNT, SUM, MIN and MAX are cheap and always computed. MEAN and VARIANCE are only computed when
+// they are requested: each accumulator sums the deviations from a shift, its first value, and
+// the accumulators are merged with the parallel formula of Chan et al., which keeps the variance
+// accurate on large values.
+// SUM overflows silently, like IntStream.sum() and LongStream.sum().
+public class FusedAggregation {
+
+    public enum Aggregate {
+        COUNT, SUM, MIN, MAX, MEAN, VARIANCE
+    }
+
+    private FusedAggregation() {
+    }
+
+    public static Result of(IntStream stream, Set<Aggregate> aggregates) {
+        boolean moments = needsMoments(aggregates);
+        return new Result(EnumSet.copyOf(aggregates),
+                stream.collect(() -> new Accumulator(moments), Accumulator::accept, Accumulator::combine));
+    }
+
+    public static Result of(LongStream stream, Set<Aggregate> aggregates) {
+        boolean moments = needsMoments(aggregates);
+        return new Result(EnumSet.copyOf(aggregates),
+                stream.collect(() -> new Accumulator(moments), Accumulator::accept, Accumulator::combine));
+    }
+
+    public static Result of(IntArrayList list, Set<Aggregate> aggregates) {
+        return of(list.stream().parallel(), aggregates);
+    }
+
+    private static boolean needsMoments(Set<Aggregate> aggregates) {
+        if (aggregates.isEmpty()) {
+            throw new IllegalArgumentException("No aggregate requested");
+        }
+        return aggregates.contains(Aggregate.MEAN) || aggregates.contains(Aggregate.VARIANCE);
+    }
+
+    static final class Accumulator {
+
+        private final boolean moments;
+        private long count;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+        // sum of (value - shift) and of (value - shift)^2
+        private double shift;
+        private double deviations;
+        private double squaredDeviations;
+
+        Accumulator(boolean moments) {
+            this.moments = moments;
+        }
+
+        void accept(int value) {
+            accept((long) value);
+        }
+
+        void accept(long value) {
+            if (moments) {
+                if (count == 0L) {
+                    shift = value;
+                }
+                double deviation = value - shift;
+                deviations += deviation;
+                squaredDeviations += deviation * deviation;
+            }
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        void combine(Accumulator other) {
+            if (other.count == 0L) {
+                return;
+            }
+            if (count == 0L) {
+                shift = other.shift;
+                deviations = other.deviations;
+                squaredDeviations = other.squaredDeviations;
+            } else if (moments) {
+                // both sides are moved to their mean, then the means are merged
+                double mean = shift + deviations / count;
+                double otherMean = other.shift + other.deviations / other.count;
+                double m2 = squaredDeviations - deviations * deviations / count;
+                double otherM2 = other.squaredDeviations - other.deviations * other.deviations / other.count;
+                double total = (double) count + other.count;
+                double delta = otherMean - mean;
+                shift = mean + delta * other.count / total;
+                deviations = 0.0;
+                squaredDeviations = m2 + otherM2 + delta * delta * count * other.count / total;
+            }
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    public static final class Result {
+
+        private final Set<Aggregate> aggregates;
+        private final Accumulator accumulator;
+
+        private Result(Set<Aggregate> aggregates, Accumulator accumulator) {
+            this.aggregates = aggregates;
+            this.accumulator = accumulator;
+        }
+
+        public Set<Aggregate> aggregates() {
+            return EnumSet.copyOf(aggregates);
+        }
+
+        public long count() {
+            check(Aggregate.COUNT);
+            return accumulator.count;
+        }
+
+        public long sum() {
+            check(Aggregate.SUM);
+            return accumulator.sum;
+        }
+
+        public long min() {
+            check(Aggregate.MIN);
+            checkNotEmpty();
+            return accumulator.min;
+        }
+
+        public long max() {
+            check(Aggregate.MAX);
+            checkNotEmpty();
+            return accumulator.max;
+        }
+
+        public double mean() {
+            check(Aggregate.MEAN);
+            checkNotEmpty();
+            return accumulator.shift + accumulator.deviations / accumulator.count;
+        }
+
+        // Population variance.
+        public double variance() {
+            check(Aggregate.VARIANCE);
+            checkNotEmpty();
+            double deviations = accumulator.deviations;
+            return Math.max(0.0, (accumulator.squaredDeviations - deviations * deviations / accumulator.count) / accumulator.count);
+        }
+
+        private void check(Aggregate aggregate) {
+            if (!aggregates.contains(aggregate)) {
+                throw new IllegalArgumentException("Aggregate not requested: " + aggregate);
+            }
+        }
+
+        private void checkNotEmpty() {
+            if (accumulator.count == 0L) {
+                throw new NoSuchElementException("Empty stream");
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("Result[");
+            for (Aggregate aggregate : aggregates) {
+                if (builder.length() > "Result[".length()) {
+                    builder.append(", ");
+                }
+                builder.append(aggregate).append("=");
+                if (accumulator.count == 0L && aggregate != Aggregate.COUNT && aggregate != Aggregate.SUM) {
+                    builder.append("n/a");
+                } else {
+                    builder.append(value(aggregate));
+                }
+            }
+            return builder.append("]").toString();
+        }
+
+        private Object value(Aggregate aggregate) {
+            switch (aggregate) {
+                case COUNT:
+                    return count();
+                case SUM:
+                    return sum();
+                case MIN:
+                    return min();
+                case MAX:
+                    return max();
+                case MEAN:
+                    return mean();
+                default:
+                    return variance();
+            }
+        }
+    }
+}
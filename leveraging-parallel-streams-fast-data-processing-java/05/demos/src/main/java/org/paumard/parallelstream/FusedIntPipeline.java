@@ -0,0 +1,677 @@
+package org.paumard.parallelstream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+// A chain of int maps and filters with constant operands, ending with a reduction, compiled to
+// a single loop class at runtime:
+//
+//     FusedIntPipeline pipeline = FusedIntPipeline.builder()
+//             .map(Op.MUL, 3)
+//             .map(Op.MUL, 7)
+//             .filter(Comparison.GT, 100)
+//             .reduce(Reduction.SUM);
+//     long sum = pipeline.rangeParallel(0, N);
+//
+// A stream pipeline pushes each element through a chain of Sink objects, and calls a lambda per
+// stage. Once many pipelines have run, these calls see many lambda classes, become megamorphic,
+// and are not inlined anymore. Here, each pipeline has its own class, with the operations written
+// as plain bytecode in one loop: its profile is not shared with any other pipeline.
+// The class file is version 49, so it needs no StackMapTable. It is defined as a hidden class
+// when the JVM supports it (Java 15+), so that it can be unloaded with its pipeline, and as
+// a regular class with a unique name otherwise.
+// The parallel methods cut the source in chunks of CHUNK_SIZE elements, run the loop on each chunk
+// in parallel, and reduce the results of the chunks.
+// SUM and COUNT are computed on longs, like asLongStream().sum(). MIN and MAX return
+// Integer.MAX_VALUE and Integer.MIN_VALUE when no element passes the filters.
+public class FusedIntPipeline {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    public enum Op {
+        ADD, SUB, MUL, DIV, REM, AND, OR, XOR, SHL, SHR, USHR
+    }
+
+    public enum Comparison {
+        EQ, NE, LT, LE, GT, GE
+    }
+
+    public enum Reduction {
+        SUM, COUNT, MIN, MAX
+    }
+
+    // Implemented by the generated classes. The loops run on values[from, to) or on the ints of
+    // [from, to).
+    interface Kernel {
+
+        long run(int[] values, int from, int to);
+
+        long range(int from, int to);
+    }
+
+    private static final AtomicLong CLASS_COUNTER = new AtomicLong();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Method DEFINE_HIDDEN_CLASS;
+    private static final Object NO_CLASS_OPTIONS;
+
+    static {
+        Method defineHiddenClass = null;
+        Object noClassOptions = null;
+        try {
+            Class<?> classOption = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            noClassOptions = Array.newInstance(classOption, 0);
+            defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass",
+                    byte[].class, boolean.class, noClassOptions.getClass());
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            // before Java 15: regular classes are defined
+        }
+        DEFINE_HIDDEN_CLASS = defineHiddenClass;
+        NO_CLASS_OPTIONS = noClassOptions;
+    }
+
+    private final List<Stage> stages;
+    private final Reduction reduction;
+    private final Kernel kernel;
+
+    private FusedIntPipeline(List<Stage> stages, Reduction reduction) {
+        this.stages = stages;
+        this.reduction = reduction;
+        this.kernel = define(new KernelWriter(stages, reduction).toByteArray());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private final List<Stage> stages = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder map(Op op, int operand) {
+            stages.add(new Stage(Objects.requireNonNull(op), null, operand));
+            return this;
+        }
+
+        public Builder filter(Comparison comparison, int operand) {
+            stages.add(new Stage(null, Objects.requireNonNull(comparison), operand));
+            return this;
+        }
+
+        public FusedIntPipeline reduce(Reduction reduction) {
+            return new FusedIntPipeline(List.copyOf(stages), Objects.requireNonNull(reduction));
+        }
+    }
+
+    // A map if op is not null, a filter otherwise.
+    private static final class Stage {
+
+        private final Op op;
+        private final Comparison comparison;
+        private final int operand;
+
+        Stage(Op op, Comparison comparison, int operand) {
+            this.op = op;
+            this.comparison = comparison;
+            this.operand = operand;
+        }
+
+        @Override
+        public String toString() {
+            return (op != null ? "map(" + op : "filter(" + comparison) + ", " + operand + ")";
+        }
+    }
+
+    public long run(int[] values) {
+        return kernel.run(values, 0, values.length);
+    }
+
+    public long run(IntArrayList list) {
+        return kernel.run(list.elements(), 0, list.size());
+    }
+
+    public long range(int from, int to) {
+        checkRange(from, to);
+        return kernel.range(from, to);
+    }
+
+    public long runParallel(int[] values) {
+        return runParallel(values, values.length);
+    }
+
+    public long runParallel(IntArrayList list) {
+        return runParallel(list.elements(), list.size());
+    }
+
+    private long runParallel(int[] values, int size) {
+        int chunkCount = (int) (((long) size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return combine(IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToLong(chunk -> {
+                    int start = chunk * CHUNK_SIZE;
+                    int end = (int) Math.min(size, (long) start + CHUNK_SIZE);
+                    return kernel.run(values, start, end);
+                }));
+    }
+
+    public long rangeParallel(int from, int to) {
+        checkRange(from, to);
+        long length = (long) to - from;
+        int chunkCount = (int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return combine(IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToLong(chunk -> {
+                    int start = (int) (from + (long) chunk * CHUNK_SIZE);
+                    int end = (int) Math.min(to, (long) start + CHUNK_SIZE);
+                    return kernel.range(start, end);
+                }));
+    }
+
+    private static void checkRange(int from, int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Illegal range: [" + from + ", " + to + ")");
+        }
+    }
+
+    private long combine(LongStream results) {
+        switch (reduction) {
+            case MIN:
+                return results.reduce(Integer.MAX_VALUE, Math::min);
+            case MAX:
+                return results.reduce(Integer.MIN_VALUE, Math::max);
+            default:
+                return results.sum();
+        }
+    }
+
+    // The same pipeline, run by the stream API on a given stream, for comparison.
+    public long reduce(IntStream stream) {
+        for (Stage stage : stages) {
+            int operand = stage.operand;
+            if (stage.op != null) {
+                stream = stream.map(mapper(stage.op, operand));
+            } else {
+                stream = stream.filter(predicate(stage.comparison, operand));
+            }
+        }
+        switch (reduction) {
+            case SUM:
+                return stream.asLongStream().sum();
+            case COUNT:
+                return stream.count();
+            case MIN:
+                return stream.reduce(Integer.MAX_VALUE, Math::min);
+            default:
+                return stream.reduce(Integer.MIN_VALUE, Math::max);
+        }
+    }
+
+    private static IntUnaryOperator mapper(Op op, int operand) {
+        switch (op) {
+            case ADD:
+                return i -> i + operand;
+            case SUB:
+                return i -> i - operand;
+            case MUL:
+                return i -> i * operand;
+            case DIV:
+                return i -> i / operand;
+            case REM:
+                return i -> i % operand;
+            case AND:
+                return i -> i & operand;
+            case OR:
+                return i -> i | operand;
+            case XOR:
+                return i -> i ^ operand;
+            case SHL:
+                return i -> i << operand;
+            case SHR:
+                return i -> i >> operand;
+            default:
+                return i -> i >>> operand;
+        }
+    }
+
+    private static IntPredicate predicate(Comparison comparison, int operand) {
+        switch (comparison) {
+            case EQ:
+                return i -> i == operand;
+            case NE:
+                return i -> i != operand;
+            case LT:
+                return i -> i < operand;
+            case LE:
+                return i -> i <= operand;
+            case GT:
+                return i -> i > operand;
+            default:
+                return i -> i >= operand;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FusedIntPipeline" + stages + ".reduce(" + reduction + ")";
+    }
+
+    private static Kernel define(byte[] classFile) {
+        try {
+            Class<?> kernelClass;
+            if (DEFINE_HIDDEN_CLASS != null) {
+                MethodHandles.Lookup lookup = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(LOOKUP, classFile, true, NO_CLASS_OPTIONS);
+                kernelClass = lookup.lookupClass();
+            } else {
+                kernelClass = LOOKUP.defineClass(classFile);
+            }
+            return (Kernel) kernelClass.getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Cannot define the pipeline class", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot define the pipeline class", e);
+        }
+    }
+
+    // Writes the class file of a Kernel. Both loops use the same locals:
+    // 1: values, 2: from, 3: to, 4-5: the long accumulator, 6: the index, 7: the current value.
+    private static final class KernelWriter {
+
+        private static final String PACKAGE = FusedIntPipeline.class.getPackageName().replace('.', '/');
+        private static final String KERNEL = Kernel.class.getName().replace('.', '/');
+
+        private final List<Stage> stages;
+        private final Reduction reduction;
+        private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+        private final Map<String, Integer> constants = new HashMap<>();
+        private int constantCount = 1;
+
+        KernelWriter(List<Stage> stages, Reduction reduction) {
+            this.stages = stages;
+            this.reduction = reduction;
+        }
+
+        byte[] toByteArray() {
+            try {
+                String name = PACKAGE + "/FusedIntPipeline$Loop" + CLASS_COUNTER.incrementAndGet();
+                int thisClass = classConstant(name);
+                int superClass = classConstant("java/lang/Object");
+                int kernelInterface = classConstant(KERNEL);
+                int code = utf8("Code");
+                byte[] constructor = method("<init>", "()V", code, 1, 1, constructorCode());
+                byte[] run = method("run", "([III)J", code, 6, 8, loopCode(true));
+                byte[] range = method("range", "(II)J", code, 6, 8, loopCode(false));
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(49);
+                out.writeShort(constantCount);
+                constantPool.flush();
+                constantPoolBytes.writeTo(out);
+                out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(kernelInterface);
+                out.writeShort(0); // fields
+                out.writeShort(3);
+                out.write(constructor);
+                out.write(run);
+                out.write(range);
+                out.writeShort(0); // attributes
+                out.flush();
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] constructorCode() throws IOException {
+            int objectInit = methodConstant("java/lang/Object", "<init>", "()V");
+            Code code = new Code();
+            code.op(ALOAD_0);
+            code.op(INVOKESPECIAL);
+            code.u2(objectInit);
+            code.op(RETURN);
+            return code.toByteArray();
+        }
+
+        private byte[] loopCode(boolean array) throws IOException {
+            int valuesSlot = 1;
+            int fromSlot = array ? 2 : 1;
+            int toSlot = array ? 3 : 2;
+            Code code = new Code();
+            // accumulator = identity, i = from
+            switch (reduction) {
+                case MIN:
+                    pushInt(code, Integer.MAX_VALUE);
+                    code.op(I2L);
+                    break;
+                case MAX:
+                    pushInt(code, Integer.MIN_VALUE);
+                    code.op(I2L);
+                    break;
+                default:
+                    code.op(LCONST_0);
+            }
+            code.op(LSTORE, 4);
+            code.op(ILOAD, fromSlot);
+            code.op(ISTORE, 6);
+            // loop: if (i >= to) goto end
+            int loop = code.position();
+            code.op(ILOAD, 6);
+            code.op(ILOAD, toSlot);
+            int exit = code.jump(IF_ICMPGE);
+            // value = values[i] or i
+            if (array) {
+                code.op(ALOAD, valuesSlot);
+                code.op(ILOAD, 6);
+                code.op(IALOAD);
+            } else {
+                code.op(ILOAD, 6);
+            }
+            code.op(ISTORE, 7);
+            List<Integer> skips = new ArrayList<>();
+            for (Stage stage : stages) {
+                code.op(ILOAD, 7);
+                pushInt(code, stage.operand);
+                if (stage.op != null) {
+                    code.op(opcode(stage.op));
+                    code.op(ISTORE, 7);
+                } else {
+                    skips.add(code.jump(rejectOpcode(stage.comparison)));
+                }
+            }
+            switch (reduction) {
+                case SUM:
+                    code.op(LLOAD, 4);
+                    code.op(ILOAD, 7);
+                    code.op(I2L);
+                    code.op(LADD);
+                    code.op(LSTORE, 4);
+                    break;
+                case COUNT:
+                    code.op(LLOAD, 4);
+                    code.op(LCONST_1);
+                    code.op(LADD);
+                    code.op(LSTORE, 4);
+                    break;
+                default:
+                    // if (value < accumulator) accumulator = value, or > for MAX
+                    code.op(ILOAD, 7);
+                    code.op(I2L);
+                    code.op(LLOAD, 4);
+                    code.op(LCMP);
+                    skips.add(code.jump(reduction == Reduction.MIN ? IFGE : IFLE));
+                    code.op(ILOAD, 7);
+                    code.op(I2L);
+                    code.op(LSTORE, 4);
+            }
+            // next: i++, goto loop
+            int next = code.position();
+            for (int skip : skips) {
+                code.patch(skip, next);
+            }
+            code.op(IINC);
+            code.u1(6);
+            code.u1(1);
+            code.patch(code.jump(GOTO), loop);
+            code.patch(exit, code.position());
+            code.op(LLOAD, 4);
+            code.op(LRETURN);
+            return code.toByteArray();
+        }
+
+        private void pushInt(Code code, int value) throws IOException {
+            if (value >= -1 && value <= 5) {
+                code.op(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.op(BIPUSH);
+                code.u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.op(SIPUSH);
+                code.u2(value);
+            } else {
+                code.op(LDC_W);
+                code.u2(intConstant(value));
+            }
+        }
+
+        private static int opcode(Op op) {
+            switch (op) {
+                case ADD:
+                    return IADD;
+                case SUB:
+                    return ISUB;
+                case MUL:
+                    return IMUL;
+                case DIV:
+                    return IDIV;
+                case REM:
+                    return IREM;
+                case AND:
+                    return IAND;
+                case OR:
+                    return IOR;
+                case XOR:
+                    return IXOR;
+                case SHL:
+                    return ISHL;
+                case SHR:
+                    return ISHR;
+                default:
+                    return IUSHR;
+            }
+        }
+
+        // The jump that skips the value when the comparison is false.
+        private static int rejectOpcode(Comparison comparison) {
+            switch (comparison) {
+                case EQ:
+                    return IF_ICMPNE;
+                case NE:
+                    return IF_ICMPEQ;
+                case LT:
+                    return IF_ICMPGE;
+                case LE:
+                    return IF_ICMPGT;
+                case GT:
+                    return IF_ICMPLE;
+                default:
+                    return IF_ICMPLT;
+            }
+        }
+
+        private byte[] method(String name, String descriptor, int codeAttribute,
+                              int maxStack, int maxLocals, byte[] code) throws IOException {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(0x0001); // public
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private int utf8(String value) throws IOException {
+            Integer index = constants.get("U" + value);
+            if (index == null) {
+                constantPool.writeByte(1);
+                constantPool.writeUTF(value);
+                index = add("U" + value, 1);
+            }
+            return index;
+        }
+
+        private int classConstant(String internalName) throws IOException {
+            Integer index = constants.get("C" + internalName);
+            if (index == null) {
+                int name = utf8(internalName);
+                constantPool.writeByte(7);
+                constantPool.writeShort(name);
+                index = add("C" + internalName, 1);
+            }
+            return index;
+        }
+
+        private int intConstant(int value) throws IOException {
+            Integer index = constants.get("I" + value);
+            if (index == null) {
+                constantPool.writeByte(3);
+                constantPool.writeInt(value);
+                index = add("I" + value, 1);
+            }
+            return index;
+        }
+
+        private int methodConstant(String owner, String name, String descriptor) throws IOException {
+            int ownerIndex = classConstant(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            constantPool.writeByte(12);
+            constantPool.writeShort(nameIndex);
+            constantPool.writeShort(descriptorIndex);
+            int nameAndType = add("N" + name + descriptor, 1);
+            constantPool.writeByte(10);
+            constantPool.writeShort(ownerIndex);
+            constantPool.writeShort(nameAndType);
+            return add("M" + owner + "." + name + descriptor, 1);
+        }
+
+        private int add(String key, int slots) {
+            int index = constantCount;
+            constantCount += slots;
+            if (constantCount > 0xFFFF) {
+                throw new IllegalStateException("Too many constants");
+            }
+            constants.put(key, index);
+            return index;
+        }
+    }
+
+    // Bytecode of a method. Jumps are written with a zero offset, patched once the target is known.
+    private static final class Code {
+
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        int position() {
+            return length;
+        }
+
+        void op(int opcode) {
+            u1(opcode);
+        }
+
+        void op(int opcode, int slot) {
+            u1(opcode);
+            u1(slot);
+        }
+
+        void u1(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * length);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void u2(int value) {
+            u1(value >>> 8);
+            u1(value);
+        }
+
+        // Returns the position of the jump instruction.
+        int jump(int opcode) {
+            int position = position();
+            u1(opcode);
+            u2(0);
+            return position;
+        }
+
+        void patch(int jump, int target) {
+            int offset = target - jump;
+            if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                throw new IllegalStateException("Pipeline too long");
+            }
+            bytes[jump + 1] = (byte) (offset >>> 8);
+            bytes[jump + 2] = (byte) offset;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    private static final int ICONST_0 = 0x03;
+    private static final int LCONST_0 = 0x09;
+    private static final int LCONST_1 = 0x0A;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ILOAD = 0x15;
+    private static final int LLOAD = 0x16;
+    private static final int ALOAD = 0x19;
+    private static final int ALOAD_0 = 0x2A;
+    private static final int IALOAD = 0x2E;
+    private static final int ISTORE = 0x36;
+    private static final int LSTORE = 0x37;
+    private static final int IADD = 0x60;
+    private static final int LADD = 0x61;
+    private static final int ISUB = 0x64;
+    private static final int IMUL = 0x68;
+    private static final int IDIV = 0x6C;
+    private static final int IREM = 0x70;
+    private static final int ISHL = 0x78;
+    private static final int ISHR = 0x7A;
+    private static final int IUSHR = 0x7C;
+    private static final int IAND = 0x7E;
+    private static final int IOR = 0x80;
+    private static final int IXOR = 0x82;
+    private static final int IINC = 0x84;
+    private static final int I2L = 0x85;
+    private static final int LCMP = 0x94;
+    private static final int IFGE = 0x9C;
+    private static final int IFLE = 0x9E;
+    private static final int IF_ICMPEQ = 0x9F;
+    private static final int IF_ICMPNE = 0xA0;
+    private static final int IF_ICMPLT = 0xA1;
+    private static final int IF_ICMPGE = 0xA2;
+    private static final int IF_ICMPGT = 0xA3;
+    private static final int IF_ICMPLE = 0xA4;
+    private static final int GOTO = 0xA7;
+    private static final int LRETURN = 0xAD;
+    private static final int RETURN = 0xB1;
+    private static final int INVOKESPECIAL = 0xB7;
+}
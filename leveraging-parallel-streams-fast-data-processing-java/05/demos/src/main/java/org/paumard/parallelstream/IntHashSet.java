@@ -0,0 +1,220 @@
+package org.paumard.parallelstream;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+public class IntHashSet {
+
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private int[] table;
+    private int mask;
+    private boolean containsZero;
+    private int size;
+    private int threshold;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public static IntHashSet of(int... values) {
+        IntHashSet set = new IntHashSet(values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = mix(value) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++size > threshold) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int slot = mix(value) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Spliterator.OfInt spliterator() {
+        return new TableSpliterator(table, containsZero, 0, table.length + 1, size, true);
+    }
+
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    public int[] toArray() {
+        return stream().toArray();
+    }
+
+    private void rehash(int newTableSize) {
+        if (newTableSize > MAX_TABLE_SIZE) {
+            throw new IllegalStateException("IntHashSet cannot grow beyond " + MAX_TABLE_SIZE + " slots");
+        }
+        int[] oldTable = table;
+        allocate(newTableSize);
+        for (int value : oldTable) {
+            if (value != EMPTY) {
+                int slot = mix(value) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        table = new int[tableSize];
+        mask = tableSize - 1;
+        threshold = (int) Math.min(tableSize * (double) LOAD_FACTOR, tableSize - 1);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long required = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (required > MAX_TABLE_SIZE) {
+            return MAX_TABLE_SIZE;
+        }
+        return Math.max(2, Integer.highestOneBit((int) required - 1) << 1);
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    // Covers slots [origin, fence) of the table; the extra slot table.length stands for the zero key.
+    private static final class TableSpliterator implements Spliterator.OfInt {
+
+        private final int[] table;
+        private final boolean containsZero;
+        private int origin;
+        private final int fence;
+        private long estimatedSize;
+        private boolean exact;
+
+        TableSpliterator(int[] table, boolean containsZero, int origin, int fence, long estimatedSize, boolean exact) {
+            this.table = table;
+            this.containsZero = containsZero;
+            this.origin = origin;
+            this.fence = fence;
+            this.estimatedSize = estimatedSize;
+            this.exact = exact;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            int middle = (origin + fence) >>> 1;
+            if (middle <= origin) {
+                return null;
+            }
+            estimatedSize >>>= 1;
+            exact = false;
+            TableSpliterator prefix = new TableSpliterator(table, containsZero, origin, middle, estimatedSize, false);
+            origin = middle;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            while (origin < fence) {
+                int slot = origin++;
+                if (slot == table.length) {
+                    if (containsZero) {
+                        estimatedSize--;
+                        action.accept(EMPTY);
+                        return true;
+                    }
+                } else if (table[slot] != EMPTY) {
+                    estimatedSize--;
+                    action.accept(table[slot]);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            int[] table = this.table;
+            int end = Math.min(fence, table.length);
+            for (int slot = origin; slot < end; slot++) {
+                int value = table[slot];
+                if (value != EMPTY) {
+                    action.accept(value);
+                }
+            }
+            if (fence > table.length && origin <= table.length && containsZero) {
+                action.accept(EMPTY);
+            }
+            origin = fence;
+            estimatedSize = 0L;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(estimatedSize, 0L);
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | (exact ? SIZED : 0);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.paumard.parallelstream;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// Records the duration of each call, in nanoseconds, and reports percentiles.
+// All the samples are kept: the p99.9 of a few thousand calls is only a handful of them.
+// Not thread safe: the pipelines are called, and timed, from one thread.
+public class LatencyRecorder {
+
+    private final String name;
+    private long[] samples;
+    private int count;
+
+    public LatencyRecorder(String name) {
+        this(name, 1024);
+    }
+
+    public LatencyRecorder(String name, int expectedSamples) {
+        this.name = name;
+        this.samples = new long[Math.max(16, expectedSamples)];
+    }
+
+    public <T> T time(Supplier<T> pipeline) {
+        long start = System.nanoTime();
+        T result = pipeline.get();
+        record(System.nanoTime() - start);
+        return result;
+    }
+
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count << 1);
+        }
+        samples[count++] = nanos;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    // Nearest-rank percentile, q between 0 and 100.
+    public long percentile(double q) {
+        return percentile(sorted(), q);
+    }
+
+    public double mean() {
+        return count == 0 ? 0d : Arrays.stream(samples, 0, count).average().getAsDouble();
+    }
+
+    public long max() {
+        return count == 0 ? 0L : Arrays.stream(samples, 0, count).max().getAsLong();
+    }
+
+    @Override
+    public String toString() {
+        long[] sorted = sorted();
+        return String.format("%-36s n = %6d  mean = %9.1f us  p50 = %9.1f us  p99 = %9.1f us  " +
+                        "p99.9 = %9.1f us  max = %9.1f us",
+                name, count, mean() / 1_000d, percentile(sorted, 50d) / 1_000d, percentile(sorted, 99d) / 1_000d,
+                percentile(sorted, 99.9d) / 1_000d, max() / 1_000d);
+    }
+
+    private long[] sorted() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0L;
+        }
+        int rank = (int) Math.ceil(q / 100d * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+}
@@ -0,0 +1,151 @@
+package org.paumard.parallelstream;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+// Prime testing and generation on unsigned 64-bit longs, with no allocation per candidate.
+// Miller-Rabin with the 7 bases of Jim Sinclair is deterministic for every n < 2^64,
+// modular products use Montgomery multiplication. Bit lengths above 64 go to BigInteger.
+public final class LongPrimes {
+
+    public static final int MAX_BIT_LENGTH = 64;
+
+    private static final long[] BASES = {2L, 325L, 9375L, 28178L, 450775L, 9780504L, 1795265022L};
+
+    private static final int[] SMALL_PRIMES = {
+            3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61, 67, 71, 73, 79, 83, 89, 97
+    };
+
+    private LongPrimes() {
+    }
+
+    public static BigInteger probablePrime(int bitLength, Random random) {
+        if (bitLength > MAX_BIT_LENGTH) {
+            return BigInteger.probablePrime(bitLength, random);
+        }
+        long prime = nextPrime(bitLength, random);
+        return prime >= 0 ? BigInteger.valueOf(prime) : new BigInteger(Long.toUnsignedString(prime));
+    }
+
+    // Returns a random prime of exactly bitLength bits, as an unsigned long.
+    public static long nextPrime(int bitLength, Random random) {
+        if (bitLength < 2 || bitLength > MAX_BIT_LENGTH) {
+            throw new IllegalArgumentException("bitLength must be in [2, 64]: " + bitLength);
+        }
+        if (bitLength == 2) {
+            return random.nextBoolean() ? 2L : 3L;
+        }
+        long topBit = 1L << (bitLength - 1);
+        long mask = bitLength == 64 ? -1L : (topBit << 1) - 1;
+        while (true) {
+            long candidate = (random.nextLong() & mask) | topBit | 1L;
+            for (int i = 0; i < 64 && (candidate & topBit) != 0 && (candidate & ~mask) == 0; i++, candidate += 2) {
+                if (isPrime(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+    }
+
+    // n is read as an unsigned 64-bit value.
+    public static boolean isPrime(long n) {
+        if (Long.compareUnsigned(n, 2L) < 0) {
+            return false;
+        }
+        if ((n & 1L) == 0) {
+            return n == 2L;
+        }
+        for (int p : SMALL_PRIMES) {
+            if (n == p) {
+                return true;
+            }
+            if (Long.remainderUnsigned(n, p) == 0) {
+                return false;
+            }
+        }
+        if (Long.compareUnsigned(n, 101L * 101L) < 0) {
+            return true;
+        }
+        return millerRabin(n);
+    }
+
+    private static boolean millerRabin(long n) {
+        long nInverse = inverse(n);
+        long one = Long.remainderUnsigned(-n, n);
+        long minusOne = n - one;
+        long r2 = one;
+        for (int i = 0; i < 64; i++) {
+            r2 = addMod(r2, r2, n);
+        }
+
+        long d = n - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>>= s;
+
+        for (long base : BASES) {
+            long a = Long.remainderUnsigned(base, n);
+            if (a == 0) {
+                continue;
+            }
+            long x = power(multiply(a, r2, n, nInverse), d, one, n, nInverse);
+            if (x == one || x == minusOne) {
+                continue;
+            }
+            boolean composite = true;
+            for (int i = 1; i < s; i++) {
+                x = multiply(x, x, n, nInverse);
+                if (x == minusOne) {
+                    composite = false;
+                    break;
+                }
+            }
+            if (composite) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns n^-1 mod 2^64 for an odd n, by Newton iteration.
+    private static long inverse(long n) {
+        long inverse = n;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - n * inverse;
+        }
+        return inverse;
+    }
+
+    private static long power(long base, long exponent, long one, long n, long nInverse) {
+        long result = one;
+        while (exponent != 0) {
+            if ((exponent & 1L) != 0) {
+                result = multiply(result, base, n, nInverse);
+            }
+            base = multiply(base, base, n, nInverse);
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    // Montgomery product a * b * 2^-64 mod n, for a, b < n.
+    private static long multiply(long a, long b, long n, long nInverse) {
+        long high = unsignedMultiplyHigh(a, b);
+        long low = a * b;
+        long m = low * nInverse;
+        long mnHigh = unsignedMultiplyHigh(m, n);
+        long result = high - mnHigh;
+        return Long.compareUnsigned(high, mnHigh) < 0 ? result + n : result;
+    }
+
+    private static long addMod(long a, long b, long n) {
+        long sum = a + b;
+        if (Long.compareUnsigned(sum, a) < 0 || Long.compareUnsigned(sum, n) >= 0) {
+            sum -= n;
+        }
+        return sum;
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+}
@@ -0,0 +1,85 @@
+package org.paumard.parallelstream;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded lock-free multi-producer multi-consumer queue of longs (Vyukov's array queue).
+// Each slot carries a sequence number telling whether it is ready to be written or read.
+// 0 is used as the empty marker by poll(), so it cannot be stored.
+class LongRingBuffer {
+
+    private final long[] values;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    LongRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.values = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(long value) {
+        if (value == 0L) {
+            throw new IllegalArgumentException("0 cannot be stored");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0L) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    values[index] = value;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0L) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    long poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0L) {
+                if (head.compareAndSet(position, position + 1)) {
+                    long value = values[index];
+                    sequences.lazySet(index, position + mask + 1);
+                    return value;
+                }
+                position = head.get();
+            } else if (difference < 0L) {
+                return 0L;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0L, Math.min(size, capacity()));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    boolean isFull() {
+        return size() >= capacity();
+    }
+}
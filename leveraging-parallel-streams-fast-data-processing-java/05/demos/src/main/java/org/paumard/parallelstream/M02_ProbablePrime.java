@@ -35,6 +35,11 @@ public class M02_ProbablePrime {
                 ThreadLocalRandom.current());
     }
 
+    BigInteger longProbablePrime() {
+        return LongPrimes.probablePrime(BIT_LENGTH,
+                ThreadLocalRandom.current());
+    }
+
     @Benchmark
     public List<BigInteger> sum_of_N_Primes() {
         List<BigInteger> pps = new ArrayList<>();
@@ -65,6 +70,14 @@ public class M02_ProbablePrime {
                 .collect(toList());
     }
 
+    @Benchmark
+    public List<BigInteger> generate_N_primes_parallel_rope() {
+        return IntStream.range(0, N)
+                .parallel()
+                .mapToObj(i -> probablePrime())
+                .collect(ParallelCollectors.toRopeList());
+    }
+
     @Benchmark
     public List<BigInteger> generate_N_primes_parallel_unordered() {
         return IntStream.range(0, N)
@@ -74,6 +87,33 @@ public class M02_ProbablePrime {
                 .collect(toList());
     }
 
+    @Benchmark
+    public List<BigInteger> generate_N_primes_parallel_unordered_buffer() {
+        return IntStream.range(0, N)
+                .unordered()
+                .parallel()
+                .mapToObj(i -> probablePrime())
+                .collect(ParallelCollectors.toUnorderedList(N));
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes_parallel_unordered() {
+        return IntStream.range(0, N)
+                .unordered()
+                .parallel()
+                .mapToObj(i -> longProbablePrime())
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes_parallel_unordered_buffer() {
+        return IntStream.range(0, N)
+                .unordered()
+                .parallel()
+                .mapToObj(i -> longProbablePrime())
+                .collect(ParallelCollectors.toUnorderedList(N));
+    }
+
     @Benchmark
     public List<BigInteger> generate_N_primes() {
         return IntStream.range(0, N)
@@ -96,6 +136,49 @@ public class M02_ProbablePrime {
                 .collect(toList());
     }
 
+    @Benchmark
+    public List<BigInteger> generate_N_primes_parallel_sized() {
+        return SizedGenerator.generate(N, () -> probablePrime())
+                .parallel()
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_primes_sized() {
+        return SizedGenerator.generate(N, () -> probablePrime())
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_primes_parallel_sized_indexed() {
+        return SizedGenerator.generateIndexed(N, index -> probablePrime())
+                .parallel()
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes() {
+        return IntStream.range(0, N)
+                .mapToObj(i -> longProbablePrime())
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes_parallel() {
+        return IntStream.range(0, N)
+                .parallel()
+                .mapToObj(i -> longProbablePrime())
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes_parallel_rope() {
+        return IntStream.range(0, N)
+                .parallel()
+                .mapToObj(i -> longProbablePrime())
+                .collect(ParallelCollectors.toRopeList());
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M02_ProbablePrime.class.getName())
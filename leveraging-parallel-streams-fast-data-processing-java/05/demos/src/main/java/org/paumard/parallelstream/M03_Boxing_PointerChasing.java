@@ -9,6 +9,7 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -31,6 +32,13 @@ public class M03_Boxing_PointerChasing {
     private LinkedList<Integer> linkedList = new LinkedList<>();
     private LinkedList<Integer> suffledLinkedList = new LinkedList<>();
     private LinkedList<Integer> scatteredLinkedList = new LinkedList<>();
+    private UnrolledIntList unrolledList = new UnrolledIntList();
+    private UnrolledIntList shuffledUnrolledList = new UnrolledIntList();
+    private UnrolledIntList scatteredUnrolledList = new UnrolledIntList();
+    private FusedIntPipeline sumOfRange = FusedIntPipeline.builder()
+            .map(FusedIntPipeline.Op.MUL, 3)
+            .map(FusedIntPipeline.Op.MUL, 7)
+            .reduce(FusedIntPipeline.Reduction.SUM);
 
     @Setup
     public void createArrayList() {
@@ -69,6 +77,38 @@ public class M03_Boxing_PointerChasing {
         scatteredLinkedList.removeIf(i -> i == 0);
     }
 
+    @Setup
+    public void createUnrolledList() {
+        unrolledList = new UnrolledIntList();
+        for (int i = 0 ; i < N ; i++) {
+            unrolledList.add(i*3);
+        }
+    }
+
+    @Setup
+    public void createShuffledUnrolledList() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 1 ; i < N + 1 ; i++) {
+            values.add(i*3);
+        }
+        Collections.shuffle(values, new Random(314159L));
+        shuffledUnrolledList = new UnrolledIntList();
+        values.forEach(shuffledUnrolledList::add);
+    }
+
+    @Setup
+    public void createScatteredUnrolledList() {
+        scatteredUnrolledList = new UnrolledIntList();
+        LinkedList<Integer> noise = new LinkedList<>();
+        for (int i = 1 ; i < N + 1 ; i++) {
+            scatteredUnrolledList.add(i*3);
+            for (int j = 0 ; j < 100 ; j++) {
+                noise.add(0);
+            }
+        }
+        noise.clear();
+    }
+
     @Setup
     public void createArrayOfInts() {
         arrayOfInts = new int[N];
@@ -111,6 +151,16 @@ public class M03_Boxing_PointerChasing {
                 .sum();
     }
 
+    @Benchmark
+    public int calculate_sum_of_range_fused() {
+        return (int) sumOfRange.range(0, N);
+    }
+
+    @Benchmark
+    public int calculate_sum_of_range_fused_parallel() {
+        return (int) sumOfRange.rangeParallel(0, N);
+    }
+
     @Benchmark
     public int calculate_sum_of_range_boxed() {
         return IntStream.range(0, N)
@@ -152,6 +202,44 @@ public class M03_Boxing_PointerChasing {
                 .sum();
     }
 
+    @Benchmark
+    public int calculate_sum_of_linked_list_parallel() {
+        return linkedList.stream()
+                .mapToInt(i -> i)
+                .map(i -> i*5)
+                .parallel()
+                .sum();
+    }
+
+    @Benchmark
+    public int calculate_sum_of_unrolled_list() {
+        return unrolledList.stream()
+                .map(i -> i*5)
+                .sum();
+    }
+
+    @Benchmark
+    public int calculate_sum_of_unrolled_list_shuffled() {
+        return shuffledUnrolledList.stream()
+                .map(i -> i*5)
+                .sum();
+    }
+
+    @Benchmark
+    public int calculate_sum_of_unrolled_list_scattered() {
+        return scatteredUnrolledList.stream()
+                .map(i -> i*5)
+                .sum();
+    }
+
+    @Benchmark
+    public int calculate_sum_of_unrolled_list_parallel() {
+        return unrolledList.stream()
+                .map(i -> i*5)
+                .parallel()
+                .sum();
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M03_Boxing_PointerChasing.class.getName())
@@ -0,0 +1,104 @@
+package org.paumard.parallelstream;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Same pipelines as M04_FindFirstList and M04_FindFirstSet, measured with SampleTime:
+// JMH reports the p50, p90, p99, p99.9 and p99.99 of each pipeline instead of its mean.
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class M04_FindFirstLatency {
+
+    public static final int MAX_RANDOM = 100_0000_000;
+
+    @Param({"1000000"})
+    private int N;
+    private int limit;
+    private List<Integer> list;
+    private Set<Integer> set;
+
+    @Setup
+    public void setup() {
+        list = FixtureStore.toList(FixtureStore.ints("ints", N, MAX_RANDOM, 100L));
+        list.add(200_0000_000);
+        set = new HashSet<>(list);
+        limit = list.size() + 1;
+    }
+
+    @Benchmark
+    public double find_first_list_no_parallel() {
+        return list.stream().filter(i -> i > MAX_RANDOM).findFirst().get();
+    }
+
+    @Benchmark
+    public double find_first_list_parallel() {
+        return list.stream().filter(i -> i > MAX_RANDOM).parallel().findFirst().get();
+    }
+
+    @Benchmark
+    public double find_any_list_no_parallel() {
+        return list.stream().filter(i -> i > MAX_RANDOM).findAny().get();
+    }
+
+    @Benchmark
+    public double find_any_list_parallel() {
+        return list.stream().filter(i -> i > MAX_RANDOM).parallel().findAny().get();
+    }
+
+    @Benchmark
+    public double find_first_list_limit_no_parallel() {
+        return list.stream().filter(i -> i > MAX_RANDOM).limit(limit).findFirst().get();
+    }
+
+    @Benchmark
+    public double find_first_list_limit_parallel() {
+        return list.stream().filter(i -> i > MAX_RANDOM).limit(limit).parallel().findFirst().get();
+    }
+
+    @Benchmark
+    public double find_first_set_no_parallel() {
+        return set.stream().filter(i -> i > MAX_RANDOM).findFirst().get();
+    }
+
+    @Benchmark
+    public double find_first_set_parallel() {
+        return set.stream().filter(i -> i > MAX_RANDOM).parallel().findFirst().get();
+    }
+
+    @Benchmark
+    public double find_any_set_no_parallel() {
+        return set.stream().filter(i -> i > MAX_RANDOM).findAny().get();
+    }
+
+    @Benchmark
+    public double find_any_set_parallel() {
+        return set.stream().filter(i -> i > MAX_RANDOM).parallel().findAny().get();
+    }
+
+    @Benchmark
+    public double find_first_set_limit_no_parallel() {
+        return set.stream().filter(i -> i > MAX_RANDOM).limit(limit).findFirst().get();
+    }
+
+    @Benchmark
+    public double find_first_set_limit_parallel() {
+        return set.stream().filter(i -> i > MAX_RANDOM).limit(limit).parallel().findFirst().get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(M04_FindFirstLatency.class.getName())
+                .build();
+        new Runner(opt).run();
+    }
+}
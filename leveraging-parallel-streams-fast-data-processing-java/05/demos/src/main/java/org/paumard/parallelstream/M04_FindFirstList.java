@@ -8,10 +8,7 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
 @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
@@ -22,30 +19,30 @@ import java.util.stream.IntStream;
 public class M04_FindFirstList {
 
     public static final int MAX_RANDOM = 100_0000_000;
-    private Random random = new Random();
 
     @Param({"1000000"})
     private int N100;
     private int limit;
     private List<Integer> intsN100;
     private List<Integer> intsN150;
+    private ChunkedIntColumn columnN100;
+    private ChunkedIntColumn columnN150;
 
     @Setup
     public void setup() {
-        intsN100 = IntStream.range(0, N100)
-                .mapToObj(index -> random.nextInt(MAX_RANDOM))
-                .collect(Collectors.toList());
+        intsN100 = FixtureStore.toList(FixtureStore.ints("ints", N100, MAX_RANDOM, 100L));
         intsN100.add(200_0000_000);
 
-        List<Integer> intsN50 = IntStream.range(0, N100 /2)
-                .mapToObj(index -> random.nextInt(MAX_RANDOM))
-                .collect(Collectors.toList());
+        List<Integer> intsN50 = FixtureStore.toList(FixtureStore.ints("ints", N100 /2, MAX_RANDOM, 50L));
 
         intsN150 = new ArrayList<>();
         intsN150.addAll(intsN100);
         intsN150.add(200_0000_000);
         intsN150.addAll(intsN50);
         limit = intsN150.size() + 1;
+
+        columnN100 = new ChunkedIntColumn(intsN100.stream().mapToInt(i -> i).toArray());
+        columnN150 = new ChunkedIntColumn(intsN150.stream().mapToInt(i -> i).toArray());
     }
 
     @Benchmark
@@ -108,6 +105,26 @@ public class M04_FindFirstList {
         return intsN150.stream().filter(i -> i > MAX_RANDOM).limit(limit).parallel().findAny().get();
     }
 
+    @Benchmark
+    public double find_first_100_zone_map_no_parallel() {
+        return columnN100.rangeFilter(MAX_RANDOM + 1, Integer.MAX_VALUE).findFirst().getAsInt();
+    }
+
+    @Benchmark
+    public double find_first_100_zone_map_parallel() {
+        return columnN100.rangeFilter(MAX_RANDOM + 1, Integer.MAX_VALUE).parallel().findFirst().getAsInt();
+    }
+
+    @Benchmark
+    public double find_first_150_zone_map_no_parallel() {
+        return columnN150.rangeFilter(MAX_RANDOM + 1, Integer.MAX_VALUE).findFirst().getAsInt();
+    }
+
+    @Benchmark
+    public double find_first_150_zone_map_parallel() {
+        return columnN150.rangeFilter(MAX_RANDOM + 1, Integer.MAX_VALUE).parallel().findFirst().getAsInt();
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M04_FindFirstList.class.getName())
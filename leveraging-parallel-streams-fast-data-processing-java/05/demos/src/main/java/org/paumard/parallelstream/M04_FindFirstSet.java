@@ -8,8 +8,6 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
 @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
@@ -19,8 +17,6 @@ import java.util.stream.IntStream;
 @State(Scope.Benchmark)
 public class M04_FindFirstSet {
 
-    private Random random = new Random();
-
     @Param({"1000000"})
     private int N100;
     private int limit;
@@ -29,14 +25,10 @@ public class M04_FindFirstSet {
 
     @Setup
     public void setup() {
-        intsN100 = IntStream.range(0, N100)
-                .mapToObj(index -> random.nextInt(100_0000_000))
-                .collect(Collectors.toSet());
+        intsN100 = FixtureStore.toSet(FixtureStore.ints("ints", N100, 100_0000_000, 100L));
         intsN100.add(200_0000_000);
 
-        Set<Integer> intsN50 = IntStream.range(0, N100/2)
-                .mapToObj(index -> random.nextInt(100_0000_000))
-                .collect(Collectors.toSet());
+        Set<Integer> intsN50 = FixtureStore.toSet(FixtureStore.ints("ints", N100/2, 100_0000_000, 50L));
 
         intsN150 = new HashSet<>();
         intsN150.addAll(intsN100);
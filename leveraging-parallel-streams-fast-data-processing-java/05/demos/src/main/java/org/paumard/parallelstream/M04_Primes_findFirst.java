@@ -33,6 +33,11 @@ public class M04_Primes_findFirst {
                 ThreadLocalRandom.current());
     }
 
+    BigInteger longProbablePrime() {
+        return LongPrimes.probablePrime(BIT_LENGTH,
+                ThreadLocalRandom.current());
+    }
+
     @Benchmark
     public Object generate_primes_findFirst() {
         return IntStream.range(0, 1000)
@@ -49,6 +54,22 @@ public class M04_Primes_findFirst {
                 .findAny();
     }
 
+    @Benchmark
+    public Object generate_long_primes_findFirst() {
+        return IntStream.range(0, 1000)
+                .mapToObj(i -> longProbablePrime())
+                .filter(prime -> prime.toString().startsWith("1"))
+                .findFirst();
+    }
+
+    @Benchmark
+    public Object generate_long_primes_findAny() {
+        return IntStream.range(0, 1000)
+                .mapToObj(i -> longProbablePrime())
+                .filter(prime -> prime.toString().startsWith("1"))
+                .findAny();
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M04_Primes_findFirst.class.getName())
@@ -1,6 +1,7 @@
 package org.paumard.parallelstream;
 
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -28,11 +29,35 @@ public class M04_Primes_limit {
     @Param({"64"})
     private int BIT_LENGTH;
 
+    // The background workers of the pool take CPU away from the other benchmarks: the pool is only
+    // started in the forks of the benchmarks that use this state.
+    @State(Scope.Benchmark)
+    public static class Pool {
+
+        private PrimePool primePool;
+
+        @Setup
+        public void startPrimePool(BenchmarkParams params) {
+            int bitLength = Integer.parseInt(params.getParam("BIT_LENGTH"));
+            primePool = new PrimePool(1024, Runtime.getRuntime().availableProcessors(), bitLength);
+        }
+
+        @TearDown
+        public void closePrimePool() {
+            primePool.close();
+        }
+    }
+
     BigInteger probablePrime() {
         return BigInteger.probablePrime(BIT_LENGTH,
                 ThreadLocalRandom.current());
     }
 
+    BigInteger longProbablePrime() {
+        return LongPrimes.probablePrime(BIT_LENGTH,
+                ThreadLocalRandom.current());
+    }
+
     @Benchmark
     public List<BigInteger> generate_N_primes_limit() {
         return IntStream.range(0, 1000)
@@ -65,6 +90,44 @@ public class M04_Primes_limit {
                 .collect(toList());
     }
 
+    @Benchmark
+    public List<BigInteger> generate_N_primes_parallel_rope() {
+        return IntStream.range(0, N)
+                .parallel()
+                .mapToObj(i -> probablePrime())
+                .collect(ParallelCollectors.toRopeList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes() {
+        return IntStream.range(0, N)
+                .mapToObj(i -> longProbablePrime())
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes_parallel() {
+        return IntStream.range(0, N)
+                .parallel()
+                .mapToObj(i -> longProbablePrime())
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<BigInteger> generate_N_long_primes_parallel_rope() {
+        return IntStream.range(0, N)
+                .parallel()
+                .mapToObj(i -> longProbablePrime())
+                .collect(ParallelCollectors.toRopeList());
+    }
+
+    // Each call takes N of the 1024 pooled primes, so the pool is drained after a few calls: in steady
+    // state, this measures how fast the workers refill the pool, not the cost of a single take.
+    @Benchmark
+    public long[] take_N_primes_from_pool(Pool pool) throws InterruptedException {
+        return pool.primePool.take(BIT_LENGTH, N);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M04_Primes_limit.class.getName())
@@ -6,10 +6,11 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.nio.IntBuffer;
+import java.util.EnumSet;
+import java.util.IntSummaryStatistics;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
@@ -20,17 +21,28 @@ import java.util.stream.IntStream;
 @State(Scope.Benchmark)
 public class M04_Sum {
 
-    private Random random = new Random();
-
     @Param({"10000000"})
     private int N;
     private List<Integer> intsN100;
+    private IntArrayList primitiveN100;
+    private BitPackedIntColumn packedN100;
+    private EnumSet<FusedAggregation.Aggregate> statistics;
+    private FusedIntPipeline pipeline;
 
     @Setup
     public void setup() {
-        intsN100 = IntStream.range(0, N)
-                .mapToObj(index -> random.nextInt(100))
-                .collect(Collectors.toList());
+        IntBuffer valuesN100 = FixtureStore.ints("ints", N, 100, 100L);
+
+        intsN100 = FixtureStore.toList(valuesN100);
+        primitiveN100 = FixtureStore.toIntArrayList(valuesN100);
+        packedN100 = BitPackedIntColumn.of(primitiveN100);
+        statistics = EnumSet.allOf(FusedAggregation.Aggregate.class);
+
+        pipeline = FusedIntPipeline.builder()
+                .map(FusedIntPipeline.Op.MUL, 3)
+                .filter(FusedIntPipeline.Comparison.GT, 100)
+                .map(FusedIntPipeline.Op.ADD, 1)
+                .reduce(FusedIntPipeline.Reduction.SUM);
     }
 
     @Benchmark
@@ -43,6 +55,105 @@ public class M04_Sum {
         return intsN100.stream().mapToInt(i -> i).parallel().sum();
     }
 
+    @Benchmark
+    public double sum_primitive_no_parallel() {
+        return primitiveN100.stream().sum();
+    }
+
+    @Benchmark
+    public double sum_primitive_parallel() {
+        return primitiveN100.stream().parallel().sum();
+    }
+
+    @Benchmark
+    public double sum_packed_parallel() {
+        return packedN100.sum();
+    }
+
+    @Benchmark
+    public double sum_packed_stream_parallel() {
+        return packedN100.parallelStream().sum();
+    }
+
+    // count, sum, min, max, mean and variance: one pass per statistic
+    @Benchmark
+    public double statistics_separate_passes_parallel() {
+        long count = primitiveN100.stream().parallel().count();
+        long sum = primitiveN100.stream().parallel().asLongStream().sum();
+        int min = primitiveN100.stream().parallel().min().getAsInt();
+        int max = primitiveN100.stream().parallel().max().getAsInt();
+        double mean = primitiveN100.stream().parallel().average().getAsDouble();
+        double variance = primitiveN100.stream().parallel()
+                .mapToDouble(i -> (i - mean) * (i - mean))
+                .sum() / count;
+        return count + sum + min + max + mean + variance;
+    }
+
+    // JDK baseline: no variance
+    @Benchmark
+    public double statistics_summary_parallel() {
+        IntSummaryStatistics summary = primitiveN100.stream().parallel().summaryStatistics();
+        return summary.getCount() + summary.getSum() + summary.getMin() + summary.getMax() + summary.getAverage();
+    }
+
+    @Benchmark
+    public double statistics_fused_parallel() {
+        FusedAggregation.Result result = FusedAggregation.of(primitiveN100.stream().parallel(), statistics);
+        return result.count() + result.sum() + result.min() + result.max() + result.mean() + result.variance();
+    }
+
+    @Benchmark
+    public double statistics_fused_boxed_parallel() {
+        FusedAggregation.Result result = FusedAggregation.of(intsN100.stream().mapToInt(i -> i).parallel(), statistics);
+        return result.count() + result.sum() + result.min() + result.max() + result.mean() + result.variance();
+    }
+
+    @Benchmark
+    public double pipeline_stream_parallel() {
+        return primitiveN100.stream().parallel()
+                .map(i -> i*3)
+                .filter(i -> i > 100)
+                .map(i -> i + 1)
+                .asLongStream()
+                .sum();
+    }
+
+    // Runs other pipelines through the stream API first, like a rule engine would, so that the
+    // stream stages see many lambda classes. Only the forks of the benchmarks that use it pay for it.
+    @State(Scope.Benchmark)
+    public static class PollutedProfiles {
+
+        @Setup
+        public void pollute() {
+            FusedIntPipeline.Op[] ops = FusedIntPipeline.Op.values();
+            FusedIntPipeline.Comparison[] comparisons = FusedIntPipeline.Comparison.values();
+            for (int i = 0; i < 20; i++) {
+                FusedIntPipeline.builder()
+                        .map(ops[i % ops.length], i + 1)
+                        .filter(comparisons[i % comparisons.length], i)
+                        .map(ops[(i + 3) % ops.length], i + 2)
+                        .reduce(FusedIntPipeline.Reduction.values()[i % 4])
+                        .reduce(IntStream.range(0, 1 << 20).parallel());
+            }
+        }
+    }
+
+    // the same pipeline, built from the lambdas shared with the polluting pipelines
+    @Benchmark
+    public double pipeline_stream_polluted_parallel(PollutedProfiles profiles) {
+        return pipeline.reduce(primitiveN100.stream().parallel());
+    }
+
+    @Benchmark
+    public double pipeline_fused_no_parallel() {
+        return pipeline.run(primitiveN100);
+    }
+
+    @Benchmark
+    public double pipeline_fused_parallel() {
+        return pipeline.runParallel(primitiveN100);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M04_Sum.class.getName())
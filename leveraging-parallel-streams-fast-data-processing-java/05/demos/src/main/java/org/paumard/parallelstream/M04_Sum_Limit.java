@@ -6,11 +6,9 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.nio.IntBuffer;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
 @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
@@ -20,22 +18,26 @@ import java.util.stream.IntStream;
 @State(Scope.Benchmark)
 public class M04_Sum_Limit {
 
-    private Random random = new Random();
-
     @Param({"1000000"})
     private int N;
     private List<Integer> intsN100;
     private List<Integer> intsN150;
+    private IntArrayList primitiveN100;
+    private IntArrayList primitiveN150;
+    private ConcurrentRangeIndex indexN150;
+    private int updates;
 
     @Setup
     public void setup() {
-        intsN100 = IntStream.range(0, N)
-                .mapToObj(index -> random.nextInt(100))
-                .collect(Collectors.toList());
+        IntBuffer valuesN100 = FixtureStore.ints("ints", N, 100, 100L);
+        IntBuffer valuesN150 = FixtureStore.ints("ints", N + N/2, 100, 150L);
+
+        intsN100 = FixtureStore.toList(valuesN100);
+        intsN150 = FixtureStore.toList(valuesN150);
 
-        intsN150 = IntStream.range(0, N + N/2)
-                .mapToObj(index -> random.nextInt(100))
-                .collect(Collectors.toList());
+        primitiveN100 = FixtureStore.toIntArrayList(valuesN100);
+        primitiveN150 = FixtureStore.toIntArrayList(valuesN150);
+        indexN150 = ConcurrentRangeIndex.of(primitiveN150);
     }
 
     @Benchmark
@@ -58,6 +60,59 @@ public class M04_Sum_Limit {
         return intsN150.stream().mapToInt(i -> i).parallel().limit(N).sum();
     }
 
+    @Benchmark
+    public double sum_primitive_no_parallel() {
+        return primitiveN100.stream().sum();
+    }
+
+    @Benchmark
+    public double sum_limit_primitive_no_parallel() {
+        return primitiveN150.stream().limit(N).sum();
+    }
+
+    @Benchmark
+    public double sum_primitive_parallel() {
+        return primitiveN100.stream().parallel().sum();
+    }
+
+    @Benchmark
+    public double sum_limit_primitive_parallel() {
+        return primitiveN150.stream().parallel().limit(N).sum();
+    }
+
+    @Benchmark
+    public double sum_limit_sized_slice_no_parallel() {
+        return SizedSlice.of(intsN150).limit(N).stream().mapToInt(i -> i).sum();
+    }
+
+    @Benchmark
+    public double sum_limit_sized_slice_parallel() {
+        return SizedSlice.of(intsN150).limit(N).parallelStream().mapToInt(i -> i).sum();
+    }
+
+    @Benchmark
+    public double sum_limit_primitive_sized_slice_parallel() {
+        return SizedSlice.of(primitiveN150).limit(N).parallelStream().sum();
+    }
+
+    @Benchmark
+    public double sum_limit_index() {
+        return indexN150.prefixSum(N);
+    }
+
+    @Benchmark
+    public double sum_window_index() {
+        return indexN150.rangeSum(N / 2, N + N / 2);
+    }
+
+    // one point update of the series, then the same query
+    @Benchmark
+    public double sum_limit_index_with_update() {
+        int index = updates++ % indexN150.size();
+        indexN150.set(index, index % 100);
+        return indexN150.prefixSum(N);
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M04_Sum_Limit.class.getName())
@@ -0,0 +1,101 @@
+package org.paumard.parallelstream;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class M05_IntSetSplit {
+
+    public static final int MAX_RANDOM = 100_0000_000;
+
+    @Param("10000000")
+    int N;
+
+    Random random = new Random(314L);
+
+    Set<Integer> intSet;
+    IntHashSet intHashSet;
+
+    @Setup
+    public void intsSets() {
+        intSet = new HashSet<>();
+        intHashSet = new IntHashSet(N + 1);
+        for (int i = 0; i < N; i++) {
+            int value = random.nextInt(MAX_RANDOM);
+            intSet.add(value);
+            intHashSet.add(value);
+        }
+        intSet.add(200_0000_000);
+        intHashSet.add(200_0000_000);
+    }
+
+    @Benchmark
+    public Object sum_hash_set() {
+        return intSet.stream()
+                .mapToInt(i -> i * 3)
+                .sum();
+    }
+
+    @Benchmark
+    public Object sum_hash_set_parallel() {
+        return intSet.stream()
+                .mapToInt(i -> i * 3)
+                .parallel()
+                .sum();
+    }
+
+    @Benchmark
+    public Object sum_int_hash_set() {
+        return intHashSet.stream()
+                .map(i -> i * 3)
+                .sum();
+    }
+
+    @Benchmark
+    public Object sum_int_hash_set_parallel() {
+        return intHashSet.stream()
+                .map(i -> i * 3)
+                .parallel()
+                .sum();
+    }
+
+    @Benchmark
+    public double find_any_hash_set() {
+        return intSet.stream().filter(i -> i > MAX_RANDOM).findAny().get();
+    }
+
+    @Benchmark
+    public double find_any_hash_set_parallel() {
+        return intSet.stream().filter(i -> i > MAX_RANDOM).parallel().findAny().get();
+    }
+
+    @Benchmark
+    public double find_any_int_hash_set() {
+        return intHashSet.stream().filter(i -> i > MAX_RANDOM).findAny().getAsInt();
+    }
+
+    @Benchmark
+    public double find_any_int_hash_set_parallel() {
+        return intHashSet.stream().filter(i -> i > MAX_RANDOM).parallel().findAny().getAsInt();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(M05_IntSetSplit.class.getName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -7,15 +7,14 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
@@ -26,40 +25,36 @@ import java.util.stream.Stream;
 @State(Scope.Benchmark)
 public class M05_SourceSplit {
 
+    private static final Path WORDS = Path.of("files/words.txt");
+
     @Param("10000000")
     int N;
 
-    Random random = new Random(314L);
-
     Set<String> lineSet;
     List<String> lineList;
+    AsciiLines lineArena;
     Set<Integer> intSet;
     List<Integer> intList;
 
     @Setup
     public void readLines() {
-        try (Stream<String> lines = Files.lines(Path.of("files/words.txt"))) {
+        try (Stream<String> lines = Files.lines(WORDS)) {
             this.lineSet = lines.collect(Collectors.toSet());
         } catch (IOException e) {
             e.printStackTrace();
         }
         this.lineList = new ArrayList<>(this.lineSet);
+        this.lineArena = AsciiLines.of(String.join("\n", lineList).getBytes(StandardCharsets.UTF_8));
     }
 
     @Setup
     public void intsList() {
-        intList = IntStream.range(0, N)
-                .map(i -> random.nextInt())
-                .boxed()
-                .collect(Collectors.toList());
+        intList = FixtureStore.toList(FixtureStore.ints("ints", N, 0, 314L));
     }
 
     @Setup
     public void intsSet() {
-        intSet = IntStream.range(0, N)
-                .map(i -> random.nextInt())
-                .boxed()
-                .collect(Collectors.toSet());
+        intSet = FixtureStore.toSet(FixtureStore.ints("ints", N, 0, 315L));
     }
 
     @Benchmark
@@ -87,6 +82,49 @@ public class M05_SourceSplit {
                 .sum();
     }
 
+    @Benchmark
+    public Object process_files_lines_parallel() throws IOException {
+        try (Stream<String> lines = Files.lines(WORDS)) {
+            return lines.parallel()
+                    .map(String::toUpperCase)
+                    .mapToInt(String::length)
+                    .sum();
+        }
+    }
+
+    @Benchmark
+    public Object process_mapped_lines_parallel() throws IOException {
+        return MappedLineSpliterator.lines(WORDS)
+                .parallel()
+                .map(String::toUpperCase)
+                .mapToInt(String::length)
+                .sum();
+    }
+
+    @Benchmark
+    public Object process_mapped_ascii_lines_parallel() throws IOException {
+        return AsciiLines.map(WORDS).upperCaseLengthSum();
+    }
+
+    @Benchmark
+    public Object process_string_list_hash_parallel() {
+        return lineList.stream()
+                .map(String::toUpperCase)
+                .mapToLong(String::hashCode)
+                .parallel()
+                .sum();
+    }
+
+    @Benchmark
+    public Object process_ascii_arena_parallel() {
+        return lineArena.upperCaseLengthSum();
+    }
+
+    @Benchmark
+    public Object process_ascii_arena_hash_parallel() {
+        return lineArena.upperCaseHashSum();
+    }
+
     @Benchmark
     public Object process_string_set_parallel() {
         return lineSet.stream()
@@ -126,6 +164,57 @@ public class M05_SourceSplit {
                 .sum();
     }
 
+    @Benchmark
+    public Object collect_int_list_parallel() {
+        return intList.parallelStream()
+                .map(i -> i * 3)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object collect_int_list_parallel_rope() {
+        return intList.parallelStream()
+                .map(i -> i * 3)
+                .collect(ParallelCollectors.toRopeList());
+    }
+
+    @Benchmark
+    public Object collect_int_list_parallel_flattened() {
+        return intList.parallelStream()
+                .map(i -> i * 3)
+                .collect(ParallelCollectors.toFlattenedList());
+    }
+
+    @Benchmark
+    public Object collect_int_list_parallel_unordered() {
+        return intList.parallelStream()
+                .unordered()
+                .map(i -> i * 3)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object collect_int_list_parallel_unordered_buffer() {
+        return intList.parallelStream()
+                .unordered()
+                .map(i -> i * 3)
+                .collect(ParallelCollectors.toUnorderedList(N));
+    }
+
+    @Benchmark
+    public Object collect_int_set_parallel() {
+        return intSet.parallelStream()
+                .map(i -> i * 3)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object collect_int_set_parallel_unordered_buffer() {
+        return intSet.parallelStream()
+                .map(i -> i * 3)
+                .collect(ParallelCollectors.toUnorderedList(N));
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(M05_SourceSplit.class.getName())
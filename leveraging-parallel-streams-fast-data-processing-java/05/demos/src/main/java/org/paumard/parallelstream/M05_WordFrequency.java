@@ -0,0 +1,68 @@
+package org.paumard.parallelstream;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class M05_WordFrequency {
+
+    @Param({"427", "1000000"})
+    int lineCount;
+
+    List<String> lines;
+
+    @Setup
+    public void generateLines() throws IOException {
+        lines = TextCorpus.generate(TextCorpus.vocabulary(), lineCount, 314L);
+    }
+
+    @Benchmark
+    public Map<String, Long> word_counts_grouping_by_concurrent() {
+        return WordIndex.wordCounts(lines, WordIndex.Strategy.GROUPING_BY_CONCURRENT);
+    }
+
+    @Benchmark
+    public Map<String, Long> word_counts_merged_maps() {
+        return WordIndex.wordCounts(lines, WordIndex.Strategy.MERGED_MAPS);
+    }
+
+    @Benchmark
+    public Map<String, Long> word_counts_primitive_table() {
+        return WordIndex.wordCounts(lines, WordIndex.Strategy.PRIMITIVE_TABLE);
+    }
+
+    @Benchmark
+    public Map<String, int[]> inverted_index_grouping_by_concurrent() {
+        return WordIndex.invertedIndex(lines, WordIndex.Strategy.GROUPING_BY_CONCURRENT);
+    }
+
+    @Benchmark
+    public Map<String, int[]> inverted_index_merged_maps() {
+        return WordIndex.invertedIndex(lines, WordIndex.Strategy.MERGED_MAPS);
+    }
+
+    @Benchmark
+    public Map<String, int[]> inverted_index_primitive_table() {
+        return WordIndex.invertedIndex(lines, WordIndex.Strategy.PRIMITIVE_TABLE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(M05_WordFrequency.class.getName())
+                .build();
+        new Runner(opt).run();
+    }
+}
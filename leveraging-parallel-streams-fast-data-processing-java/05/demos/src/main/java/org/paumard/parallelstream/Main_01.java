@@ -1,7 +1,5 @@
 package org.paumard.parallelstream;
 
-import java.math.BigInteger;
-import java.util.Set;
 import java.util.concurrent.*;
 import java.util.stream.IntStream;
 
@@ -9,29 +7,20 @@ public class Main_01 {
 
     public static void main(String[] args) throws ExecutionException, InterruptedException {
 
-        Set<String> threadNames = ConcurrentHashMap.newKeySet();
-        ConcurrentHashMap<String, Long> threads = new ConcurrentHashMap<>();
+        WorkProfiler profiler = new WorkProfiler();
 
-        ForkJoinPool forkJoinPool = new ForkJoinPool(8);
+        try (ParallelExecutionContext context = new ParallelExecutionContext("main-01", 8)) {
 
-        Callable<Integer> task = () -> IntStream.range(0, 100000)
-                .map(i -> i * 3)
-                .parallel()
-                .peek(i -> threads.merge(Thread.currentThread().getName(), 1L, Long::sum))
-                .sum();
+            int sum = context.submit(() -> profiler.profile(IntStream.range(0, 100000))
+                            .map(i -> i * 3)
+                            .parallel()
+                            .sum(),
+                    System.out::println)
+                    .get();
 
-//        int sum = forkJoinPool.submit(task).get();
-
-        int sum = IntStream.range(0, 100000)
-                .map(i -> i * 3)
-                .parallel()
-                .peek(i -> threads.merge(Thread.currentThread().getName(), 1L, Long::sum))
-                .sum();
-        System.out.println("sum = " + sum);
-        // threadNames.forEach(System.out::println);
-        threads.forEach((key, value) -> System.out.println(key + " -> " + value));
-
-        forkJoinPool.shutdown();
+            System.out.println("sum = " + sum);
+            profiler.report().print(System.out);
+        }
     }
 
 }
@@ -0,0 +1,54 @@
+package org.paumard.parallelstream;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class Main_Latency {
+
+    public static final int MAX_RANDOM = 100_0000_000;
+
+    public static void main(String[] args) {
+
+        int n = 1_000_000;
+        int warmups = 200;
+        int runs = 2_000;
+
+        Random random = new Random();
+        List<Integer> list = IntStream.range(0, n)
+                .mapToObj(index -> random.nextInt(MAX_RANDOM))
+                .collect(Collectors.toList());
+        list.add(200_0000_000);
+        Set<Integer> set = new HashSet<>(list);
+        int limit = list.size() + 1;
+
+        Map<String, Supplier<Integer>> pipelines = new LinkedHashMap<>();
+        pipelines.put("find_first_list_no_parallel", () -> list.stream().filter(i -> i > MAX_RANDOM).findFirst().get());
+        pipelines.put("find_first_list_parallel", () -> list.stream().filter(i -> i > MAX_RANDOM).parallel().findFirst().get());
+        pipelines.put("find_any_list_no_parallel", () -> list.stream().filter(i -> i > MAX_RANDOM).findAny().get());
+        pipelines.put("find_any_list_parallel", () -> list.stream().filter(i -> i > MAX_RANDOM).parallel().findAny().get());
+        pipelines.put("find_first_list_limit_no_parallel", () -> list.stream().filter(i -> i > MAX_RANDOM).limit(limit).findFirst().get());
+        pipelines.put("find_first_list_limit_parallel", () -> list.stream().filter(i -> i > MAX_RANDOM).limit(limit).parallel().findFirst().get());
+        pipelines.put("find_first_set_no_parallel", () -> set.stream().filter(i -> i > MAX_RANDOM).findFirst().get());
+        pipelines.put("find_first_set_parallel", () -> set.stream().filter(i -> i > MAX_RANDOM).parallel().findFirst().get());
+        pipelines.put("find_any_set_no_parallel", () -> set.stream().filter(i -> i > MAX_RANDOM).findAny().get());
+        pipelines.put("find_any_set_parallel", () -> set.stream().filter(i -> i > MAX_RANDOM).parallel().findAny().get());
+        pipelines.put("find_first_set_limit_no_parallel", () -> set.stream().filter(i -> i > MAX_RANDOM).limit(limit).findFirst().get());
+        pipelines.put("find_first_set_limit_parallel", () -> set.stream().filter(i -> i > MAX_RANDOM).limit(limit).parallel().findFirst().get());
+
+        long check = 0L;
+        for (Map.Entry<String, Supplier<Integer>> pipeline : pipelines.entrySet()) {
+            LatencyRecorder recorder = new LatencyRecorder(pipeline.getKey(), runs);
+            for (int i = 0; i < warmups; i++) {
+                check += recorder.time(pipeline.getValue());
+            }
+            recorder.reset();
+            for (int i = 0; i < runs; i++) {
+                check += recorder.time(pipeline.getValue());
+            }
+            System.out.println(recorder);
+        }
+        System.out.println("check = " + check);
+    }
+}
@@ -23,25 +23,21 @@ public class Main_Sets {
         }
         List<String> linesList = new ArrayList<>(linesSet);
 
-        ConcurrentHashMap<String, Long> threads = new ConcurrentHashMap<>();
-
-        ForkJoinPool forkJoinPool = new ForkJoinPool(8);
-
-        Callable<Integer> task = () -> {
-            System.out.println("Launching thread = " + Thread.currentThread().getName());
-            return linesSet.stream()
-                    .mapToInt(String::length)
-                    .parallel()
-                    .peek(i -> threads.merge(Thread.currentThread().getName(), 1L, Long::sum))
-                    .sum();
-        };
-
-        ForkJoinTask<Integer> submit = forkJoinPool.submit(task);
-        submit.get();
-
-        threads.forEach((key, value) -> System.out.println(key + " -> " + value));
+        WorkProfiler profiler = new WorkProfiler();
+
+        try (ParallelExecutionContext context = new ParallelExecutionContext("main-sets", 8)) {
+            context.submit(() -> {
+                        System.out.println("Launching thread = " + Thread.currentThread().getName());
+                        return profiler.profile(linesSet.stream())
+                                .mapToInt(String::length)
+                                .parallel()
+                                .sum();
+                    },
+                    System.out::println)
+                    .get();
+        }
 
-        forkJoinPool.shutdown();
+        profiler.report().print(System.out);
 
         Set<Integer> hashes = linesList.stream()
                 .map(line -> hash(line))
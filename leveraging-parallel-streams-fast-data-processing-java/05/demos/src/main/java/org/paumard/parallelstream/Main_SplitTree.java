@@ -0,0 +1,28 @@
+package org.paumard.parallelstream;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class Main_SplitTree {
+
+    public static void main(String[] args) {
+
+        int n = 1_000_000;
+        int parallelism = 8;
+        Random random = new Random(314L);
+
+        int[] ints = IntStream.range(0, n).map(i -> random.nextInt()).toArray();
+        List<Integer> arrayList = Arrays.stream(ints).boxed().collect(Collectors.toCollection(ArrayList::new));
+        List<Integer> linkedList = new LinkedList<>(arrayList);
+        Set<Integer> hashSet = new HashSet<>(arrayList);
+        IntArrayList intArrayList = IntArrayList.of(ints);
+        IntHashSet intHashSet = IntHashSet.of(ints);
+
+        System.out.println("ArrayList     " + SplitTreeAnalyzer.analyze(arrayList.spliterator(), parallelism));
+        System.out.println("LinkedList    " + SplitTreeAnalyzer.analyze(linkedList.spliterator(), parallelism));
+        System.out.println("HashSet       " + SplitTreeAnalyzer.analyze(hashSet.spliterator(), parallelism));
+        System.out.println("IntArrayList  " + SplitTreeAnalyzer.analyze(intArrayList.spliterator(), parallelism));
+        System.out.println("IntHashSet    " + SplitTreeAnalyzer.analyze(intHashSet.spliterator(), parallelism));
+    }
+}
@@ -0,0 +1,64 @@
+package org.paumard.parallelstream;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class Main_WordFrequency {
+
+    public static void main(String[] args) throws IOException {
+
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<String> vocabulary = TextCorpus.vocabulary();
+        System.out.println("# words in " + TextCorpus.WORDS + " = " + vocabulary.size());
+
+        if (args.length > 1) {
+            Path path = Path.of(args[1]);
+            long start = System.nanoTime();
+            TextCorpus.write(vocabulary, lineCount, 314L, path);
+            System.out.printf("Wrote %d lines to %s in %d ms%n", lineCount, path, (System.nanoTime() - start) / 1_000_000);
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<String> lines = TextCorpus.generate(vocabulary, lineCount, 314L);
+        System.out.printf("Generated %d lines in %d ms%n", lineCount, (System.nanoTime() - start) / 1_000_000);
+
+        Map<String, Long> referenceCounts = null;
+        Map<String, int[]> referenceIndex = null;
+        for (int run = 0; run < 3; run++) {
+            for (WordIndex.Strategy strategy : WordIndex.Strategy.values()) {
+                start = System.nanoTime();
+                Map<String, Long> counts = WordIndex.wordCounts(lines, strategy);
+                long countTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                Map<String, int[]> index = WordIndex.invertedIndex(lines, strategy);
+                long indexTime = System.nanoTime() - start;
+
+                if (referenceCounts == null) {
+                    referenceCounts = counts;
+                    referenceIndex = index;
+                }
+                boolean same = counts.equals(referenceCounts) && sameIndex(index, referenceIndex);
+                System.out.printf("%-24s counts = %6d ms  index = %6d ms  words = %d  %s%n",
+                        strategy, countTime / 1_000_000, indexTime / 1_000_000, counts.size(),
+                        same ? "" : "DIFFERENT RESULT");
+            }
+        }
+
+        Map<String, int[]> index = referenceIndex;
+        referenceCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10)
+                .forEach(entry -> System.out.printf("%-16s %10d occurrences, on %10d lines%n",
+                        entry.getKey(), entry.getValue(), index.get(entry.getKey()).length));
+    }
+
+    private static boolean sameIndex(Map<String, int[]> index1, Map<String, int[]> index2) {
+        return index1.size() == index2.size() &&
+                index1.entrySet().stream().allMatch(entry -> Arrays.equals(entry.getValue(), index2.get(entry.getKey())));
+    }
+}
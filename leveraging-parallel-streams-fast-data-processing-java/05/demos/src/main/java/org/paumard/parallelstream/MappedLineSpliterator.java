@@ -0,0 +1,178 @@
+package org.paumard.parallelstream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Lines of a memory-mapped UTF-8 file; regions and splits always end on a newline.
+public class MappedLineSpliterator implements Spliterator<String> {
+
+    static final int MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final ByteBuffer[] regions;
+    private int index;
+    private final int fence;
+    private int position;
+    private final int lastLimit;
+
+    private byte[] lineBuffer = new byte[128];
+
+    MappedLineSpliterator(ByteBuffer[] regions, int index, int fence, int position, int lastLimit) {
+        this.regions = regions;
+        this.index = index;
+        this.fence = fence;
+        this.position = position;
+        this.lastLimit = lastLimit;
+    }
+
+    public static Stream<String> lines(Path path) throws IOException {
+        return StreamSupport.stream(spliterator(path), false);
+    }
+
+    public static MappedLineSpliterator spliterator(Path path) throws IOException {
+        ByteBuffer[] regions = map(path, MAX_REGION_SIZE);
+        int lastLimit = regions.length == 0 ? 0 : regions[regions.length - 1].limit();
+        return new MappedLineSpliterator(regions, 0, regions.length, 0, lastLimit);
+    }
+
+    static ByteBuffer[] map(Path path, int maxRegionSize) throws IOException {
+        List<ByteBuffer> regions = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0L;
+            while (start < size) {
+                long length = Math.min(maxRegionSize, size - start);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                if (start + length < size) {
+                    int lastLineFeed = lastLineFeed(mapped, (int) length);
+                    if (lastLineFeed < 0) {
+                        throw new IOException("Line longer than " + maxRegionSize + " bytes at offset " + start + " in " + path);
+                    }
+                    length = lastLineFeed + 1;
+                    mapped.limit((int) length);
+                }
+                regions.add(mapped.slice());
+                start += length;
+            }
+        }
+        return regions.toArray(new ByteBuffer[0]);
+    }
+
+    private static int lastLineFeed(ByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buffer.get(i) == LF) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int nextLineStart(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == LF) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    private int limitOf(int region) {
+        return region == fence - 1 ? lastLimit : regions[region].limit();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        while (index < fence) {
+            int limit = limitOf(index);
+            if (position < limit) {
+                action.accept(readLine(regions[index], limit));
+                return true;
+            }
+            index++;
+            position = 0;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        for (; index < fence; index++, position = 0) {
+            ByteBuffer region = regions[index];
+            int limit = limitOf(index);
+            while (position < limit) {
+                action.accept(readLine(region, limit));
+            }
+        }
+    }
+
+    private String readLine(ByteBuffer region, int limit) {
+        int start = position;
+        int next = nextLineStart(region, start, limit);
+        int end = next;
+        if (end > start && region.get(end - 1) == LF) {
+            end--;
+        }
+        if (end > start && region.get(end - 1) == CR) {
+            end--;
+        }
+        position = next;
+        int length = end - start;
+        if (length > lineBuffer.length) {
+            lineBuffer = new byte[Math.max(length, lineBuffer.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            lineBuffer[i] = region.get(start + i);
+        }
+        return new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (fence - index > 1) {
+            int middle = (index + fence) >>> 1;
+            MappedLineSpliterator prefix =
+                    new MappedLineSpliterator(regions, index, middle, position, regions[middle - 1].limit());
+            index = middle;
+            position = 0;
+            return prefix;
+        }
+        if (index == fence) {
+            return null;
+        }
+        int limit = lastLimit;
+        int split = nextLineStart(regions[index], (position + limit) >>> 1, limit);
+        if (split >= limit || split <= position) {
+            return null;
+        }
+        MappedLineSpliterator prefix = new MappedLineSpliterator(regions, index, index + 1, position, split);
+        position = split;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long remaining = 0L;
+        for (int i = index; i < fence; i++) {
+            remaining += limitOf(i);
+        }
+        return remaining - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,71 @@
+package org.paumard.parallelstream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collector;
+
+// Collectors for parallel streams that avoid the copies of Collectors.toList() when the partial
+// results of the tasks are combined.
+public final class ParallelCollectors {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 1024;
+
+    private ParallelCollectors() {
+    }
+
+    // Each task fills an ArrayList; combining two tasks creates a rope node over their results,
+    // in O(1) instead of copying the right list at the end of the left one.
+    public static <T> Collector<T, ?, RopeList<T>> toRopeList() {
+        return Collector.<T, RopeBuilder<T>, RopeList<T>>of(
+                RopeBuilder::new, RopeBuilder::add, RopeBuilder::combine, RopeBuilder::build);
+    }
+
+    // Same as toRopeList(), then copies the elements in a single array, once, at the end.
+    public static <T> Collector<T, ?, List<T>> toFlattenedList() {
+        return Collector.<T, RopeBuilder<T>, List<T>>of(
+                RopeBuilder::new, RopeBuilder::add, RopeBuilder::combine, builder -> builder.build().flatten());
+    }
+
+    // For pipelines that do not care about the order of the elements: all the threads append to the
+    // same lock-free buffer, so the stream does not combine partial results. The collector is CONCURRENT
+    // and UNORDERED, which makes the stream use this single buffer, even if its source is ordered.
+    // Used as a downstream collector, of groupingBy() for instance, buffers may still be combined:
+    // the elements of the second one are then appended to the first one.
+    // The returned list is read-only, in no particular order.
+    public static <T> Collector<T, ?, List<T>> toUnorderedList() {
+        return toUnorderedList(DEFAULT_EXPECTED_SIZE);
+    }
+
+    // The first segment of the buffer is sized for expectedSize elements.
+    public static <T> Collector<T, ?, List<T>> toUnorderedList(int expectedSize) {
+        return Collector.<T, ConcurrentAppendBuffer<T>, List<T>>of(
+                () -> new ConcurrentAppendBuffer<>(expectedSize),
+                ConcurrentAppendBuffer::add,
+                (buffer1, buffer2) -> {
+                    buffer2.asList().forEach(buffer1::add);
+                    return buffer1;
+                },
+                ConcurrentAppendBuffer::asList,
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    private static final class RopeBuilder<T> {
+
+        private RopeList.Node<T> tree;
+        private List<T> tail = new ArrayList<>();
+
+        void add(T element) {
+            tail.add(element);
+        }
+
+        RopeBuilder<T> combine(RopeBuilder<T> other) {
+            tree = RopeList.concat(RopeList.concat(tree, RopeList.leaf(tail)), other.tree);
+            tail = other.tail;
+            return this;
+        }
+
+        RopeList<T> build() {
+            return RopeList.of(RopeList.concat(tree, RopeList.leaf(tail)));
+        }
+    }
+}
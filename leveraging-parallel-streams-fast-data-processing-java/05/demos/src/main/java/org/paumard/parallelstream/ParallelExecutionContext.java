@@ -0,0 +1,152 @@
+package org.paumard.parallelstream;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Runs stream pipelines on a named, sized ForkJoinPool instead of the common pool.
+// A parallel stream forks its tasks in the pool of the worker thread that launches the terminal
+// operation, so the pipeline is started from a task of this pool.
+public class ParallelExecutionContext implements AutoCloseable {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String name;
+    private final ForkJoinPool pool;
+    private final Map<Long, Thread> workers = new ConcurrentHashMap<>();
+
+    public ParallelExecutionContext(String name, int parallelism) {
+        this.name = name;
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = new ForkJoinWorkerThread(forkJoinPool) {
+                @Override
+                protected void onTermination(Throwable exception) {
+                    workers.remove(getId());
+                    super.onTermination(exception);
+                }
+            };
+            thread.setName(name + "-worker-" + count.incrementAndGet());
+            workers.put(thread.getId(), thread);
+            return thread;
+        }, null, false);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> pipeline) {
+        return submit(pipeline, utilization -> {
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> pipeline, Consumer<? super Utilization> onCompletion) {
+        long steals = pool.getStealCount();
+        Map<Long, Long> cpuTimes = cpuTimes();
+        long start = System.nanoTime();
+        return CompletableFuture.supplyAsync(pipeline, pool)
+                .whenComplete((result, exception) ->
+                        onCompletion.accept(utilizationSince(start, cpuTimes, steals)));
+    }
+
+    private Map<Long, Long> cpuTimes() {
+        Map<Long, Long> cpuTimes = new HashMap<>();
+        for (Long id : workers.keySet()) {
+            long cpuTime = THREADS.getThreadCpuTime(id);
+            if (cpuTime >= 0) {
+                cpuTimes.put(id, cpuTime);
+            }
+        }
+        return cpuTimes;
+    }
+
+    private Utilization utilizationSince(long start, Map<Long, Long> cpuTimesAtStart, long stealsAtStart) {
+        long elapsed = System.nanoTime() - start;
+        long busy = 0L;
+        for (Long id : workers.keySet()) {
+            long cpuTime = THREADS.getThreadCpuTime(id);
+            if (cpuTime >= 0) {
+                busy += cpuTime - cpuTimesAtStart.getOrDefault(id, 0L);
+            }
+        }
+        return new Utilization(name, pool.getParallelism(), workers.size(),
+                elapsed, busy, pool.getStealCount() - stealsAtStart);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    public static final class Utilization {
+
+        private final String name;
+        private final int parallelism;
+        private final int poolSize;
+        private final long elapsedNanos;
+        private final long busyNanos;
+        private final long steals;
+
+        Utilization(String name, int parallelism, int poolSize, long elapsedNanos, long busyNanos, long steals) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.poolSize = poolSize;
+            this.elapsedNanos = elapsedNanos;
+            this.busyNanos = busyNanos;
+            this.steals = steals;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int parallelism() {
+            return parallelism;
+        }
+
+        public int poolSize() {
+            return poolSize;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        // CPU time consumed by the workers of the pool while the pipeline was running.
+        public long busyNanos() {
+            return busyNanos;
+        }
+
+        public long steals() {
+            return steals;
+        }
+
+        public double ratio() {
+            return elapsedNanos == 0L ? 0d : busyNanos / ((double) elapsedNanos * parallelism);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: parallelism = %d, workers = %d, elapsed = %.3f ms, busy = %.3f ms, utilization = %.1f%%, steals = %d",
+                    name, parallelism, poolSize, elapsedNanos / 1e6, busyNanos / 1e6, 100 * ratio(), steals);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.paumard.parallelstream;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Keeps a ring buffer of ready primes per bit length, refilled by background workers.
+// take() costs one poll of the ring buffer and only waits when the buffer is drained.
+public class PrimePool implements AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int SPINS = 100;
+
+    private final LongRingBuffer[] buffers = new LongRingBuffer[LongPrimes.MAX_BIT_LENGTH + 1];
+    private final int[] bitLengths;
+    private final ExecutorService workers;
+    private volatile boolean closed;
+
+    public PrimePool(int capacity, int workerCount, int... bitLengths) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Illegal worker count: " + workerCount);
+        }
+        if (bitLengths.length == 0) {
+            throw new IllegalArgumentException("No bit length given");
+        }
+        for (int bitLength : bitLengths) {
+            if (bitLength < 2 || bitLength > LongPrimes.MAX_BIT_LENGTH) {
+                throw new IllegalArgumentException("bitLength must be in [2, 64]: " + bitLength);
+            }
+            buffers[bitLength] = new LongRingBuffer(capacity);
+        }
+        this.bitLengths = bitLengths.clone();
+        this.workers = Executors.newFixedThreadPool(workerCount, daemonThreads());
+        for (int i = 0; i < workerCount; i++) {
+            int offset = i;
+            workers.execute(() -> refill(offset));
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "prime-pool-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+    }
+
+    private void refill(int offset) {
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            boolean generated = false;
+            for (int i = 0; i < bitLengths.length; i++) {
+                int bitLength = bitLengths[(offset + i) % bitLengths.length];
+                LongRingBuffer buffer = buffers[bitLength];
+                if (!buffer.isFull()) {
+                    buffer.offer(LongPrimes.nextPrime(bitLength, ThreadLocalRandom.current()));
+                    generated = true;
+                }
+            }
+            if (!generated) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    public long take(int bitLength) throws InterruptedException {
+        LongRingBuffer buffer = bufferFor(bitLength);
+        long prime = buffer.poll();
+        long parkNanos = 1L;
+        int spins = 0;
+        while (prime == 0L) {
+            if (closed) {
+                throw new IllegalStateException("Prime pool is closed");
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (spins < SPINS) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(this, parkNanos);
+                parkNanos = Math.min(parkNanos << 1, MAX_WAIT_PARK_NANOS);
+            }
+            prime = buffer.poll();
+        }
+        return prime;
+    }
+
+    public long[] take(int bitLength, int count) throws InterruptedException {
+        long[] primes = new long[count];
+        for (int i = 0; i < count; i++) {
+            primes[i] = take(bitLength);
+        }
+        return primes;
+    }
+
+    public int available(int bitLength) {
+        return bufferFor(bitLength).size();
+    }
+
+    private LongRingBuffer bufferFor(int bitLength) {
+        LongRingBuffer buffer = bitLength >= 0 && bitLength < buffers.length ? buffers[bitLength] : null;
+        if (buffer == null) {
+            throw new IllegalArgumentException("No primes pooled for bit length " + bitLength);
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        workers.shutdownNow();
+    }
+}
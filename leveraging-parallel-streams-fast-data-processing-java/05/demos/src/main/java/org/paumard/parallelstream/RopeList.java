@@ -0,0 +1,292 @@
+package org.paumard.parallelstream;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// An immutable list made of a binary tree of leaf chunks. Two ropes are concatenated in O(1) by
+// creating a node over them: nothing is copied. get(index) walks down the tree, in O(log chunks) as
+// long as the tree is balanced; a tree that becomes too deep is rebuilt from its leaves.
+// The spliterator splits on the nodes of the tree, then on the leaves.
+// flatten() copies the elements in a single array, when many random accesses are expected.
+public final class RopeList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final RopeList<?> EMPTY = new RopeList<>(null);
+    private static final int PARALLEL_FLATTEN_THRESHOLD = 1 << 16;
+
+    private final Node<T> root;
+
+    private RopeList(Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> RopeList<T> of(Node<T> root) {
+        return root == null ? (RopeList<T>) EMPTY : new RopeList<>(root);
+    }
+
+    // The leaf takes the ownership of the list, that should not be modified afterwards.
+    static <T> Node<T> leaf(List<T> elements) {
+        return elements.isEmpty() ? null : new Node<>(elements);
+    }
+
+    static <T> Node<T> concat(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        Node<T> node = new Node<>(left, right);
+        if (node.depth > maxDepth(node.leafCount)) {
+            return rebalance(node);
+        }
+        return node;
+    }
+
+    private static int maxDepth(int leafCount) {
+        return 2 * (32 - Integer.numberOfLeadingZeros(leafCount)) + 2;
+    }
+
+    private static <T> Node<T> rebalance(Node<T> node) {
+        List<Node<T>> leaves = new ArrayList<>(node.leafCount);
+        node.collectLeaves(leaves);
+        return balanced(leaves, 0, leaves.size());
+    }
+
+    private static <T> Node<T> balanced(List<Node<T>> leaves, int from, int to) {
+        if (to - from == 1) {
+            return leaves.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(balanced(leaves, from, middle), balanced(leaves, middle, to));
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size());
+        Node<T> node = root;
+        while (node.elements == null) {
+            if (index < node.left.size) {
+                node = node.left;
+            } else {
+                index -= node.left.size;
+                node = node.right;
+            }
+        }
+        return node.elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    public int chunkCount() {
+        return root == null ? 0 : root.leafCount;
+    }
+
+    public int depth() {
+        return root == null ? 0 : root.depth;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        if (root != null) {
+            root.forEach(action);
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new RopeSpliterator<>(root);
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size()];
+        if (root == null) {
+            return array;
+        }
+        if (array.length < PARALLEL_FLATTEN_THRESHOLD) {
+            root.copyTo(array, 0);
+            return array;
+        }
+        List<Node<T>> leaves = new ArrayList<>(root.leafCount);
+        root.collectLeaves(leaves);
+        int[] offsets = new int[leaves.size()];
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] = offsets[i - 1] + leaves.get(i - 1).size;
+        }
+        IntStream.range(0, leaves.size())
+                .parallel()
+                .forEach(i -> leaves.get(i).copyTo(array, offsets[i]));
+        return array;
+    }
+
+    // Copies the elements in a single array: an immutable list with O(1) random access.
+    @SuppressWarnings("unchecked")
+    public List<T> flatten() {
+        return Collections.unmodifiableList(Arrays.asList((T[]) toArray()));
+    }
+
+    static final class Node<T> {
+
+        final List<T> elements;
+        final Node<T> left;
+        final Node<T> right;
+        final int size;
+        final int depth;
+        final int leafCount;
+
+        Node(List<T> elements) {
+            this.elements = elements;
+            this.left = null;
+            this.right = null;
+            this.size = elements.size();
+            this.depth = 1;
+            this.leafCount = 1;
+        }
+
+        Node(Node<T> left, Node<T> right) {
+            if ((long) left.size + right.size > Integer.MAX_VALUE) {
+                throw new OutOfMemoryError("Rope too large: " + ((long) left.size + right.size));
+            }
+            this.elements = null;
+            this.left = left;
+            this.right = right;
+            this.size = left.size + right.size;
+            this.depth = Math.max(left.depth, right.depth) + 1;
+            this.leafCount = left.leafCount + right.leafCount;
+        }
+
+        boolean isLeaf() {
+            return elements != null;
+        }
+
+        void collectLeaves(List<Node<T>> leaves) {
+            if (isLeaf()) {
+                leaves.add(this);
+            } else {
+                left.collectLeaves(leaves);
+                right.collectLeaves(leaves);
+            }
+        }
+
+        void forEach(Consumer<? super T> action) {
+            if (isLeaf()) {
+                elements.forEach(action);
+            } else {
+                left.forEach(action);
+                right.forEach(action);
+            }
+        }
+
+        void copyTo(Object[] array, int offset) {
+            if (isLeaf()) {
+                for (int i = 0; i < size; i++) {
+                    array[offset + i] = elements.get(i);
+                }
+            } else {
+                left.copyTo(array, offset);
+                right.copyTo(array, offset + left.size);
+            }
+        }
+    }
+
+    // Splits on the nodes of the tree as long as the traversal has not started, then on the leaf
+    // that is left.
+    private static final class RopeSpliterator<T> implements Spliterator<T> {
+
+        private final Deque<Node<T>> pending = new ArrayDeque<>();
+        private Spliterator<T> current;
+        private long size;
+
+        RopeSpliterator(Node<T> root) {
+            if (root != null) {
+                pending.push(root);
+                size = root.size;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (current == null && pending.size() == 1) {
+                Node<T> node = pending.peek();
+                if (!node.isLeaf()) {
+                    pending.pop();
+                    pending.push(node.right);
+                    size = node.right.size;
+                    return new RopeSpliterator<>(node.left);
+                }
+                current = pending.pop().elements.spliterator();
+            }
+            if (current != null && pending.isEmpty()) {
+                Spliterator<T> prefix = current.trySplit();
+                if (prefix != null) {
+                    size -= prefix.estimateSize();
+                }
+                return prefix;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (current == null || !current.tryAdvance(action)) {
+                if (pending.isEmpty()) {
+                    current = null;
+                    return false;
+                }
+                Node<T> node = pending.pop();
+                while (!node.isLeaf()) {
+                    pending.push(node.right);
+                    node = node.left;
+                }
+                current = node.elements.spliterator();
+            }
+            size--;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            while (!pending.isEmpty()) {
+                pending.pop().forEach(action);
+            }
+            size = 0L;
+        }
+
+        @Override
+        public long estimateSize() {
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
+}
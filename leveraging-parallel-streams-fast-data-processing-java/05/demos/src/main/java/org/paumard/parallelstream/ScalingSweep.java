@@ -0,0 +1,145 @@
+package org.paumard.parallelstream;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Runs the parallel benchmarks at parallelism 1, 2, 4, ... up to the number of cores. Each point runs in
+// its own forked JVM, with a common pool of p - 1 workers: the thread that calls the terminal operation
+// also takes part in the computation, which makes p threads in total.
+// The serial fraction f comes from Amdahl's law, 1 / S(p) = f + (1 - f) / p, fitted by least squares.
+//
+// java -cp target\benchmarks.jar org.paumard.parallelstream.ScalingSweep [options] [suite...]
+//   --max <p>             largest parallelism, default the number of cores
+//   --results <dir>       where to write the results, default results
+//   --quick               1 fork, 3 warmup and 3 measurement iterations
+// The default suite is every M04 benchmark whose name ends with _parallel.
+public class ScalingSweep {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        int maxParallelism = Runtime.getRuntime().availableProcessors();
+        Path resultsDirectory = Path.of("results");
+        boolean quick = false;
+        List<String> suites = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max":
+                    maxParallelism = Integer.parseInt(args[++i]);
+                    break;
+                case "--results":
+                    resultsDirectory = Path.of(args[++i]);
+                    break;
+                case "--quick":
+                    quick = true;
+                    break;
+                default:
+                    suites.add(args[i]);
+            }
+        }
+        if (suites.isEmpty()) {
+            suites.add(".*M04_.*_parallel$");
+        }
+
+        // benchmark -> parallelism -> score
+        Map<String, Map<Integer, BenchmarkHarness.Score>> scores = new LinkedHashMap<>();
+        for (int parallelism : parallelisms(maxParallelism)) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .exclude(".*_no_parallel$")
+                    .jvmArgsAppend("-Djava.util.concurrent.ForkJoinPool.common.parallelism=" + (parallelism - 1));
+            suites.forEach(options::include);
+            if (quick) {
+                options.forks(1).warmupIterations(3).measurementIterations(3);
+            }
+            for (RunResult runResult : new Runner(options.build()).run()) {
+                BenchmarkHarness.Score score = BenchmarkHarness.Score.of(runResult);
+                scores.computeIfAbsent(score.key, key -> new TreeMap<>()).put(parallelism, score);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("benchmark\tparallelism\tscore\tunit\tspeedup\tefficiency");
+        System.out.println();
+        for (Map.Entry<String, Map<Integer, BenchmarkHarness.Score>> entry : scores.entrySet()) {
+            String benchmark = entry.getKey();
+            Map<Integer, BenchmarkHarness.Score> points = entry.getValue();
+            BenchmarkHarness.Score reference = points.get(1);
+            System.out.println(benchmark);
+            if (reference == null) {
+                System.out.println("   no run at parallelism 1, cannot compute the speedup");
+                continue;
+            }
+            Map<Integer, Double> speedups = new TreeMap<>();
+            for (Map.Entry<Integer, BenchmarkHarness.Score> point : points.entrySet()) {
+                int parallelism = point.getKey();
+                BenchmarkHarness.Score score = point.getValue();
+                double speedup = speedup(reference, score);
+                speedups.put(parallelism, speedup);
+                System.out.printf("   p = %3d  score = %14.3f %-8s speedup = %6.2f  efficiency = %5.1f%%%n",
+                        parallelism, score.score, score.unit, speedup, 100 * speedup / parallelism);
+                lines.add(String.join("\t", benchmark, Integer.toString(parallelism), Double.toString(score.score),
+                        score.unit, Double.toString(speedup), Double.toString(speedup / parallelism)));
+            }
+            double serialFraction = serialFraction(speedups);
+            if (Double.isNaN(serialFraction)) {
+                System.out.println("   not enough points to fit a serial fraction");
+            } else {
+                System.out.printf("   serial fraction = %.3f, speedup bound = %s%n", serialFraction,
+                        serialFraction == 0d ? "none" : String.format("%.1f", 1 / serialFraction));
+            }
+        }
+
+        Files.createDirectories(resultsDirectory);
+        Path file = resultsDirectory.resolve(
+                "scaling-" + BenchmarkHarness.commit() + "-" + BenchmarkHarness.jvm() + ".tsv");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        System.out.println("Results written to " + file);
+    }
+
+    static List<Integer> parallelisms(int maxParallelism) {
+        List<Integer> parallelisms = new ArrayList<>();
+        for (int parallelism = 1; parallelism < maxParallelism; parallelism <<= 1) {
+            parallelisms.add(parallelism);
+        }
+        parallelisms.add(maxParallelism);
+        return parallelisms;
+    }
+
+    // Time per operation goes down when the speedup goes up, throughput goes up with it.
+    static double speedup(BenchmarkHarness.Score reference, BenchmarkHarness.Score score) {
+        return score.mode == Mode.Throughput ? score.score / reference.score : reference.score / score.score;
+    }
+
+    // With x = 1 - 1/p and y = 1/S - 1/p, Amdahl's law is y = f * x, and f = sum(xy) / sum(x^2).
+    static double serialFraction(Map<Integer, Double> speedups) {
+        double sumXY = 0d;
+        double sumXX = 0d;
+        for (Map.Entry<Integer, Double> point : speedups.entrySet()) {
+            int parallelism = point.getKey();
+            if (parallelism == 1) {
+                continue;
+            }
+            double x = 1d - 1d / parallelism;
+            double y = 1d / point.getValue() - 1d / parallelism;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        if (sumXX == 0d) {
+            return Double.NaN;
+        }
+        return Math.min(1d, Math.max(0d, sumXY / sumXX));
+    }
+}
@@ -0,0 +1,93 @@
+package org.paumard.parallelstream;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Finite replacement of Stream.generate(supplier).limit(n). The spliterator covers a range of
+// indexes and splits it in exact halves: it is SIZED and SUBSIZED, so a parallel stream knows how
+// many elements each task produces, and never generates more than n of them.
+// generate() calls a supplier and is unordered, like Stream.generate(). generateIndexed() passes
+// the index of the element, from 0 to n - 1, and is ordered.
+public class SizedGenerator {
+
+    private SizedGenerator() {
+    }
+
+    public static <T> Stream<T> generate(long n, Supplier<? extends T> supplier) {
+        Objects.requireNonNull(supplier);
+        return StreamSupport.stream(new IndexSpliterator<>(0L, checkSize(n), index -> supplier.get(), 0), false);
+    }
+
+    public static <T> Stream<T> generateIndexed(long n, LongFunction<? extends T> generator) {
+        Objects.requireNonNull(generator);
+        return StreamSupport.stream(new IndexSpliterator<>(0L, checkSize(n), generator, Spliterator.ORDERED), false);
+    }
+
+    private static long checkSize(long n) {
+        if (n < 0L) {
+            throw new IllegalArgumentException("Illegal size: " + n);
+        }
+        return n;
+    }
+
+    private static final class IndexSpliterator<T> implements Spliterator<T> {
+
+        private long index;
+        private final long fence;
+        private final LongFunction<? extends T> generator;
+        private final int characteristics;
+
+        IndexSpliterator(long index, long fence, LongFunction<? extends T> generator, int characteristics) {
+            this.index = index;
+            this.fence = fence;
+            this.generator = generator;
+            this.characteristics = characteristics | SIZED | SUBSIZED | IMMUTABLE;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long middle = (index + fence) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            IndexSpliterator<T> prefix = new IndexSpliterator<>(index, middle, generator, characteristics);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(generator.apply(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            long i = index;
+            index = fence;
+            for (; i < fence; i++) {
+                action.accept(generator.apply(i));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.paumard.parallelstream;
+
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// skip() and limit() on a random-access source, applied as index bounds before the stream is built,
+// so a parallel pipeline keeps SIZED | SUBSIZED and never goes through the buffering slice operation.
+public class SizedSlice<T> {
+
+    private final List<T> list;
+    private final int from;
+    private final int to;
+
+    private SizedSlice(List<T> list, int from, int to) {
+        this.list = list;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static <T> SizedSlice<T> of(List<T> list) {
+        if (!(list instanceof RandomAccess)) {
+            throw new IllegalArgumentException("Not a random access list: " + list.getClass().getName());
+        }
+        return new SizedSlice<>(list, 0, list.size());
+    }
+
+    public static OfInt of(IntArrayList list) {
+        return new OfInt(list, 0, list.size());
+    }
+
+    public SizedSlice<T> skip(long n) {
+        return new SizedSlice<>(list, offset(from, to, n), to);
+    }
+
+    public SizedSlice<T> limit(long n) {
+        return new SizedSlice<>(list, from, offset(from, to, n));
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public Stream<T> stream() {
+        return list.subList(from, to).stream();
+    }
+
+    public Stream<T> parallelStream() {
+        return list.subList(from, to).parallelStream();
+    }
+
+    private static int offset(int from, int to, long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(Long.toString(n));
+        }
+        return n >= to - from ? to : from + (int) n;
+    }
+
+    public static class OfInt {
+
+        private final IntArrayList list;
+        private final int from;
+        private final int to;
+
+        private OfInt(IntArrayList list, int from, int to) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+        }
+
+        public OfInt skip(long n) {
+            return new OfInt(list, offset(from, to, n), to);
+        }
+
+        public OfInt limit(long n) {
+            return new OfInt(list, from, offset(from, to, n));
+        }
+
+        public int size() {
+            return to - from;
+        }
+
+        public IntStream stream() {
+            return StreamSupport.intStream(list.spliterator(from, to), false);
+        }
+
+        public IntStream parallelStream() {
+            return StreamSupport.intStream(list.spliterator(from, to), true);
+        }
+    }
+}
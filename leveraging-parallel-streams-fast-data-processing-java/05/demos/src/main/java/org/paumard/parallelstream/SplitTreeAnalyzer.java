@@ -0,0 +1,198 @@
+package org.paumard.parallelstream;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+
+// Drives trySplit() on a source the way the fork / join tasks of the Stream API do: a spliterator is
+// split while its estimated size is above estimateSize(root) / (4 * parallelism). The leaves are then
+// traversed to compare the estimated and the actual sizes. The predicted efficiency comes from
+// scheduling the leaves, largest first, on the least loaded of the workers.
+public class SplitTreeAnalyzer {
+
+    private SplitTreeAnalyzer() {
+    }
+
+    public static Report analyze(Spliterator<?> spliterator) {
+        return analyze(spliterator, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    public static Report analyze(Spliterator<?> spliterator, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Illegal parallelism: " + parallelism);
+        }
+        long leafTarget = (long) parallelism << 2;
+        long sizeThreshold = Math.max(1L, spliterator.estimateSize() / leafTarget);
+        Node root = split(spliterator, sizeThreshold, 0);
+        return new Report(root, parallelism, sizeThreshold);
+    }
+
+    private static Node split(Spliterator<?> spliterator, long sizeThreshold, int depth) {
+        long estimatedSize = spliterator.estimateSize();
+        Spliterator<?> prefix;
+        if (estimatedSize > sizeThreshold && (prefix = spliterator.trySplit()) != null) {
+            Node left = split(prefix, sizeThreshold, depth + 1);
+            Node right = split(spliterator, sizeThreshold, depth + 1);
+            return new Node(depth, estimatedSize, left, right);
+        }
+        long[] actualSize = {0L};
+        spliterator.forEachRemaining(element -> actualSize[0]++);
+        return new Node(depth, estimatedSize, actualSize[0]);
+    }
+
+    public static final class Node {
+
+        private final int depth;
+        private final long estimatedSize;
+        private final long actualSize;
+        private final Node left;
+        private final Node right;
+
+        Node(int depth, long estimatedSize, Node left, Node right) {
+            this.depth = depth;
+            this.estimatedSize = estimatedSize;
+            this.actualSize = left.actualSize + right.actualSize;
+            this.left = left;
+            this.right = right;
+        }
+
+        Node(int depth, long estimatedSize, long actualSize) {
+            this.depth = depth;
+            this.estimatedSize = estimatedSize;
+            this.actualSize = actualSize;
+            this.left = null;
+            this.right = null;
+        }
+
+        public boolean isLeaf() {
+            return left == null;
+        }
+
+        public int depth() {
+            return depth;
+        }
+
+        public long estimatedSize() {
+            return estimatedSize;
+        }
+
+        public long actualSize() {
+            return actualSize;
+        }
+
+        public Node left() {
+            return left;
+        }
+
+        public Node right() {
+            return right;
+        }
+
+        void collectLeaves(List<Node> leaves) {
+            if (isLeaf()) {
+                leaves.add(this);
+            } else {
+                left.collectLeaves(leaves);
+                right.collectLeaves(leaves);
+            }
+        }
+
+        void print(PrintStream out) {
+            out.printf("%s%s estimated = %d, actual = %d%n",
+                    "  ".repeat(depth), isLeaf() ? "leaf" : "node", estimatedSize, actualSize);
+            if (!isLeaf()) {
+                left.print(out);
+                right.print(out);
+            }
+        }
+    }
+
+    public static final class Report {
+
+        private final Node root;
+        private final int parallelism;
+        private final long sizeThreshold;
+        private final List<Node> leaves = new ArrayList<>();
+
+        Report(Node root, int parallelism, long sizeThreshold) {
+            this.root = root;
+            this.parallelism = parallelism;
+            this.sizeThreshold = sizeThreshold;
+            root.collectLeaves(leaves);
+        }
+
+        public Node root() {
+            return root;
+        }
+
+        public List<Node> leaves() {
+            return leaves;
+        }
+
+        public long elements() {
+            return root.actualSize();
+        }
+
+        public int maxDepth() {
+            return leaves.stream().mapToInt(Node::depth).max().orElse(0);
+        }
+
+        // Largest leaf over the mean leaf; 1.0 means that all the leaves have the same size.
+        public double imbalance() {
+            if (elements() == 0L) {
+                return 1d;
+            }
+            long largest = leaves.stream().mapToLong(Node::actualSize).max().orElse(0L);
+            return largest / (elements() / (double) leaves.size());
+        }
+
+        // Sum of |estimated - actual| over the leaves, relative to the number of elements.
+        public double estimateError() {
+            if (elements() == 0L) {
+                return 0d;
+            }
+            long error = leaves.stream()
+                    .mapToLong(leaf -> Math.abs(leaf.estimatedSize() - leaf.actualSize()))
+                    .sum();
+            return error / (double) elements();
+        }
+
+        public double predictedEfficiency() {
+            if (elements() == 0L) {
+                return 1d;
+            }
+            long[] sizes = leaves.stream().mapToLong(Node::actualSize).sorted().toArray();
+            long[] loads = new long[parallelism];
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                int leastLoaded = 0;
+                for (int worker = 1; worker < parallelism; worker++) {
+                    if (loads[worker] < loads[leastLoaded]) {
+                        leastLoaded = worker;
+                    }
+                }
+                loads[leastLoaded] += sizes[i];
+            }
+            long makespan = Arrays.stream(loads).max().getAsLong();
+            return elements() / ((double) parallelism * makespan);
+        }
+
+        public void printTree(PrintStream out) {
+            root.print(out);
+        }
+
+        public void print(PrintStream out) {
+            out.println(this);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("parallelism = %d, size threshold = %d, elements = %d, leaves = %d, max depth = %d, " +
+                            "imbalance = %.2f, estimate error = %.1f%%, predicted efficiency = %.1f%%",
+                    parallelism, sizeThreshold, elements(), leaves.size(), maxDepth(),
+                    imbalance(), 100 * estimateError(), 100 * predictedEfficiency());
+        }
+    }
+}
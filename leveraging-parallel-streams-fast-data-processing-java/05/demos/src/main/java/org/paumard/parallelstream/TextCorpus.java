@@ -0,0 +1,93 @@
+package org.paumard.parallelstream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Synthetic text built from the words of files/words.txt, to run the text pipelines at any size.
+// Line i only depends on the seed and on i, so the same corpus is generated whatever the number
+// of threads. Lines have 3 to 8 words, and word frequencies are skewed: a few words are very common,
+// most are rare, like in real text.
+public class TextCorpus {
+
+    public static final Path WORDS = Path.of("files/words.txt");
+
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private TextCorpus() {
+    }
+
+    public static List<String> vocabulary() throws IOException {
+        return vocabulary(WORDS);
+    }
+
+    public static List<String> vocabulary(Path path) throws IOException {
+        try (Stream<String> lines = Files.lines(path)) {
+            return lines.flatMap(WordIndex::words)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static List<String> generate(List<String> vocabulary, int lineCount, long seed) {
+        String[] words = vocabulary.toArray(String[]::new);
+        String[] lines = new String[lineCount];
+        IntStream.range(0, lineCount)
+                .parallel()
+                .forEach(i -> lines[i] = line(words, i, seed));
+        return Arrays.asList(lines);
+    }
+
+    // Writes the corpus block by block: each block is generated in parallel, then written in order.
+    public static void write(List<String> vocabulary, long lineCount, long seed, Path path) {
+        String[] words = vocabulary.toArray(String[]::new);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (long start = 0L; start < lineCount; start += BLOCK_SIZE) {
+                long first = start;
+                int size = (int) Math.min(BLOCK_SIZE, lineCount - start);
+                String block = IntStream.range(0, size)
+                        .parallel()
+                        .mapToObj(i -> line(words, first + i, seed))
+                        .collect(Collectors.joining("\n", "", "\n"));
+                writer.write(block);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String line(String[] words, long index, long seed) {
+        SplittableRandom random = new SplittableRandom(mix(seed + index));
+        int wordCount = 3 + random.nextInt(6);
+        StringBuilder line = new StringBuilder(wordCount * 8);
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            double u = random.nextDouble();
+            line.append(words[(int) (u * u * u * words.length)]);
+            if (random.nextInt(16) == 0) {
+                line.append(',');
+            }
+        }
+        return line.toString();
+    }
+
+    // SplittableRandom walks its seed by a fixed increment: seeds that are too close would give
+    // overlapping sequences, so the seed of each line is scrambled first.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
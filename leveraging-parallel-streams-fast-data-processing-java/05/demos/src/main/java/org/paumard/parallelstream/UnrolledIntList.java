@@ -0,0 +1,211 @@
+package org.paumard.parallelstream;
+
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+// A doubly linked list of int blocks: O(1) insertion and removal at both ends, and traversal
+// that follows one pointer per block instead of one per element. The spliterator splits on
+// block boundaries and knows the exact size of both halves.
+public class UnrolledIntList {
+
+    static final int BLOCK_SIZE = 512;
+
+    private Block head;
+    private Block tail;
+    private int blockCount;
+    private int size;
+
+    static final class Block {
+
+        final int[] values = new int[BLOCK_SIZE];
+        int start;
+        int end;
+        Block previous;
+        Block next;
+
+        Block(int position) {
+            this.start = position;
+            this.end = position;
+        }
+    }
+
+    public void add(int value) {
+        addLast(value);
+    }
+
+    public void addLast(int value) {
+        if (tail == null || tail.end == BLOCK_SIZE) {
+            Block block = new Block(0);
+            block.previous = tail;
+            if (tail == null) {
+                head = block;
+            } else {
+                tail.next = block;
+            }
+            tail = block;
+            blockCount++;
+        }
+        tail.values[tail.end++] = value;
+        size++;
+    }
+
+    public void addFirst(int value) {
+        if (head == null || head.start == 0) {
+            Block block = new Block(BLOCK_SIZE);
+            block.next = head;
+            if (head == null) {
+                tail = block;
+            } else {
+                head.previous = block;
+            }
+            head = block;
+            blockCount++;
+        }
+        head.values[--head.start] = value;
+        size++;
+    }
+
+    public int pollFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        Block block = head;
+        int value = block.values[block.start++];
+        size--;
+        if (block.start == block.end) {
+            head = block.next;
+            if (head == null) {
+                tail = null;
+            } else {
+                head.previous = null;
+            }
+            blockCount--;
+        }
+        return value;
+    }
+
+    public int pollLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        Block block = tail;
+        int value = block.values[--block.end];
+        size--;
+        if (block.start == block.end) {
+            tail = block.previous;
+            if (tail == null) {
+                head = null;
+            } else {
+                tail.next = null;
+            }
+            blockCount--;
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Spliterator.OfInt spliterator() {
+        return new BlockSpliterator(head, head == null ? 0 : head.start, blockCount, size);
+    }
+
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    private static final class BlockSpliterator implements Spliterator.OfInt {
+
+        private Block current;
+        private int index;
+        private int blocks;
+        private long remaining;
+
+        BlockSpliterator(Block current, int index, int blocks, long remaining) {
+            this.current = current;
+            this.index = index;
+            this.blocks = blocks;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            if (blocks < 2) {
+                return null;
+            }
+            int half = blocks >>> 1;
+            Block last = current;
+            long prefixSize = current.end - index;
+            for (int i = 1; i < half; i++) {
+                last = last.next;
+                prefixSize += last.end - last.start;
+            }
+            BlockSpliterator prefix = new BlockSpliterator(current, index, half, prefixSize);
+            current = last.next;
+            index = current.start;
+            blocks -= half;
+            remaining -= prefixSize;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (remaining == 0L) {
+                return false;
+            }
+            if (index == current.end) {
+                current = current.next;
+                index = current.start;
+                blocks--;
+            }
+            remaining--;
+            action.accept(current.values[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Block block = current;
+            int from = index;
+            long remaining = this.remaining;
+            while (remaining > 0L) {
+                int to = (int) Math.min(block.end, from + remaining);
+                int[] values = block.values;
+                for (int i = from; i < to; i++) {
+                    action.accept(values[i]);
+                }
+                remaining -= to - from;
+                if (remaining > 0L) {
+                    block = block.next;
+                    from = block.start;
+                }
+            }
+            this.current = block;
+            this.index = block == null ? 0 : block.end;
+            this.blocks = 1;
+            this.remaining = 0L;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
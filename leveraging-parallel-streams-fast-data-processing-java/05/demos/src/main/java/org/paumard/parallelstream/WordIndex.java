@@ -0,0 +1,346 @@
+package org.paumard.parallelstream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Word counts and inverted index (word -> sorted line numbers) of a list of lines, built in parallel
+// with three strategies:
+// - GROUPING_BY_CONCURRENT: one ConcurrentHashMap shared by all the threads,
+// - MERGED_MAPS: one HashMap per task, merged when the tasks are joined. The line ranges of the tasks
+//   are merged in order, so the line numbers come out sorted,
+// - PRIMITIVE_TABLE: one open addressing table per chunk of lines, with int counters. Words are looked
+//   up in the line itself, a String is only created the first time a chunk sees a word. The index is
+//   then filled in a single int[], with the positions of each chunk computed by a prefix sum.
+// A word is a run of letters or digits, in lower case. Line numbers start at 0.
+public class WordIndex {
+
+    public enum Strategy {
+        GROUPING_BY_CONCURRENT, MERGED_MAPS, PRIMITIVE_TABLE
+    }
+
+    private WordIndex() {
+    }
+
+    public static Map<String, Long> wordCounts(List<String> lines, Strategy strategy) {
+        checkRandomAccess(lines);
+        switch (strategy) {
+            case GROUPING_BY_CONCURRENT:
+                return lines.parallelStream()
+                        .flatMap(WordIndex::words)
+                        .collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+            case MERGED_MAPS:
+                return lines.parallelStream()
+                        .collect(HashMap::new,
+                                (counts, line) -> forEachWord(line,
+                                        (from, to) -> counts.merge(word(line, from, to), 1L, Long::sum)),
+                                (counts1, counts2) -> counts2.forEach((word, count) -> counts1.merge(word, count, Long::sum)));
+            case PRIMITIVE_TABLE:
+                WordTable[] tables = countChunks(lines);
+                WordTable global = merge(tables);
+                Map<String, Long> counts = new HashMap<>(global.size() * 2);
+                for (int id = 0; id < global.size(); id++) {
+                    counts.put(global.word(id), global.occurrences[id]);
+                }
+                return counts;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+
+    public static Map<String, int[]> invertedIndex(List<String> lines, Strategy strategy) {
+        checkRandomAccess(lines);
+        switch (strategy) {
+            case GROUPING_BY_CONCURRENT:
+                Map<String, List<Integer>> postings = IntStream.range(0, lines.size())
+                        .parallel()
+                        .boxed()
+                        .flatMap(line -> words(lines.get(line)).distinct().map(word -> Map.entry(word, line)))
+                        .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                                Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+                Map<String, int[]> index = new HashMap<>(postings.size() * 2);
+                postings.forEach((word, lineNumbers) ->
+                        index.put(word, lineNumbers.stream().mapToInt(Integer::intValue).sorted().toArray()));
+                return index;
+            case MERGED_MAPS:
+                Map<String, IntArrayList> lists = IntStream.range(0, lines.size())
+                        .parallel()
+                        .collect(HashMap::new,
+                                (map, line) -> forEachWord(lines.get(line), (from, to) -> {
+                                    IntArrayList lineNumbers =
+                                            map.computeIfAbsent(word(lines.get(line), from, to), word -> new IntArrayList(4));
+                                    if (lineNumbers.isEmpty() || lineNumbers.get(lineNumbers.size() - 1) != line) {
+                                        lineNumbers.add(line);
+                                    }
+                                }),
+                                (map1, map2) -> map2.forEach((word, lineNumbers) -> map1.merge(word, lineNumbers,
+                                        (lineNumbers1, lineNumbers2) -> {
+                                            lineNumbers1.addAll(lineNumbers2);
+                                            return lineNumbers1;
+                                        })));
+                Map<String, int[]> result = new HashMap<>(lists.size() * 2);
+                lists.forEach((word, lineNumbers) -> result.put(word, lineNumbers.toArray()));
+                return result;
+            case PRIMITIVE_TABLE:
+                return primitiveIndex(lines);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+
+    public static Stream<String> words(String line) {
+        List<String> words = new ArrayList<>();
+        forEachWord(line, (from, to) -> words.add(word(line, from, to)));
+        return words.stream();
+    }
+
+    interface WordConsumer {
+        void accept(int from, int to);
+    }
+
+    static void forEachWord(String line, WordConsumer action) {
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(line.charAt(i))) {
+                i++;
+            }
+            int from = i;
+            while (i < length && Character.isLetterOrDigit(line.charAt(i))) {
+                i++;
+            }
+            if (i > from) {
+                action.accept(from, i);
+            }
+        }
+    }
+
+    static String word(String line, int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            chars[i - from] = Character.toLowerCase(line.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static void checkRandomAccess(List<String> lines) {
+        if (!(lines instanceof RandomAccess)) {
+            throw new IllegalArgumentException("Lines should be a random access list: " + lines.getClass().getName());
+        }
+    }
+
+    private static int chunkCount(int lineCount) {
+        return Math.max(1, Math.min(lineCount, ForkJoinPool.getCommonPoolParallelism() * 8));
+    }
+
+    private static int chunkStart(int chunk, int chunkCount, int lineCount) {
+        return (int) ((long) lineCount * chunk / chunkCount);
+    }
+
+    private static WordTable[] countChunks(List<String> lines) {
+        int lineCount = lines.size();
+        int chunkCount = chunkCount(lineCount);
+        return IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(chunk -> {
+                    WordTable table = new WordTable();
+                    int end = chunkStart(chunk + 1, chunkCount, lineCount);
+                    for (int lineNumber = chunkStart(chunk, chunkCount, lineCount); lineNumber < end; lineNumber++) {
+                        String line = lines.get(lineNumber);
+                        int number = lineNumber;
+                        forEachWord(line, (from, to) -> table.occurrence(line, from, to, number));
+                    }
+                    return table;
+                })
+                .toArray(WordTable[]::new);
+    }
+
+    private static WordTable merge(WordTable[] tables) {
+        WordTable global = new WordTable();
+        for (WordTable table : tables) {
+            for (int id = 0; id < table.size(); id++) {
+                int globalId = global.add(table.word(id));
+                global.occurrences[globalId] += table.occurrences[id];
+                global.lineCounts[globalId] += table.lineCounts[id];
+            }
+        }
+        return global;
+    }
+
+    private static Map<String, int[]> primitiveIndex(List<String> lines) {
+        int lineCount = lines.size();
+        WordTable[] tables = countChunks(lines);
+        int chunkCount = tables.length;
+        WordTable global = merge(tables);
+
+        // offsets[id] is where the line numbers of the word id start in postings
+        int[] offsets = new int[global.size() + 1];
+        for (int id = 0; id < global.size(); id++) {
+            offsets[id + 1] = offsets[id] + global.lineCounts[id];
+        }
+        // cursors[chunk][local id] is where this chunk writes its line numbers for this word
+        int[] next = Arrays.copyOf(offsets, global.size());
+        int[][] cursors = new int[chunkCount][];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            WordTable table = tables[chunk];
+            cursors[chunk] = new int[table.size()];
+            for (int id = 0; id < table.size(); id++) {
+                int globalId = global.id(table.word(id));
+                cursors[chunk][id] = next[globalId];
+                next[globalId] += table.lineCounts[id];
+            }
+        }
+
+        int[] postings = new int[offsets[global.size()]];
+        IntStream.range(0, chunkCount)
+                .parallel()
+                .forEach(chunk -> {
+                    WordTable table = tables[chunk];
+                    int[] cursor = cursors[chunk];
+                    Arrays.fill(table.lastLine, 0, table.size(), -1);
+                    int end = chunkStart(chunk + 1, chunkCount, lineCount);
+                    for (int lineNumber = chunkStart(chunk, chunkCount, lineCount); lineNumber < end; lineNumber++) {
+                        String line = lines.get(lineNumber);
+                        int number = lineNumber;
+                        forEachWord(line, (from, to) -> {
+                            int id = table.id(line, from, to);
+                            if (table.lastLine[id] != number) {
+                                table.lastLine[id] = number;
+                                postings[cursor[id]++] = number;
+                            }
+                        });
+                    }
+                });
+
+        Map<String, int[]> index = new HashMap<>(global.size() * 2);
+        for (int id = 0; id < global.size(); id++) {
+            index.put(global.word(id), Arrays.copyOfRange(postings, offsets[id], offsets[id + 1]));
+        }
+        return index;
+    }
+
+    // Open addressing table from words to ids 0, 1, 2, ..., with counters indexed by id.
+    // The hash of a word read from a line is the hash of its lower case String, so both can be looked up.
+    static final class WordTable {
+
+        private int[] slots = new int[64];      // id + 1, 0 for an empty slot
+        private String[] words = new String[32];
+        long[] occurrences = new long[32];
+        int[] lineCounts = new int[32];
+        int[] lastLine = new int[32];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        String word(int id) {
+            return words[id];
+        }
+
+        void occurrence(String line, int from, int to, int lineNumber) {
+            int id = add(line, from, to);
+            occurrences[id]++;
+            if (lastLine[id] != lineNumber || lineCounts[id] == 0) {
+                lastLine[id] = lineNumber;
+                lineCounts[id]++;
+            }
+        }
+
+        int id(String word) {
+            int mask = slots.length - 1;
+            for (int slot = mix(word.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if (id < 0 || words[id].equals(word)) {
+                    return id;
+                }
+            }
+        }
+
+        int id(String line, int from, int to) {
+            int mask = slots.length - 1;
+            for (int slot = mix(hash(line, from, to)) & mask; ; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if (id < 0 || matches(words[id], line, from, to)) {
+                    return id;
+                }
+            }
+        }
+
+        int add(String word) {
+            int id = id(word);
+            return id >= 0 ? id : insert(word);
+        }
+
+        int add(String line, int from, int to) {
+            int id = id(line, from, to);
+            return id >= 0 ? id : insert(WordIndex.word(line, from, to));
+        }
+
+        private int insert(String word) {
+            if (size == words.length) {
+                int capacity = size << 1;
+                words = Arrays.copyOf(words, capacity);
+                occurrences = Arrays.copyOf(occurrences, capacity);
+                lineCounts = Arrays.copyOf(lineCounts, capacity);
+                lastLine = Arrays.copyOf(lastLine, capacity);
+            }
+            if (2 * (size + 1) > slots.length) {
+                rehash(slots.length << 1);
+            }
+            int id = size++;
+            words[id] = word;
+            place(word, id);
+            return id;
+        }
+
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+            for (int id = 0; id < size; id++) {
+                place(words[id], id);
+            }
+        }
+
+        private void place(String word, int id) {
+            int mask = slots.length - 1;
+            int slot = mix(word.hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+
+        private static int hash(String line, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + Character.toLowerCase(line.charAt(i));
+            }
+            return h;
+        }
+
+        private static boolean matches(String word, String line, int from, int to) {
+            if (word.length() != to - from) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                if (word.charAt(i - from) != Character.toLowerCase(line.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int mix(int x) {
+            int h = x * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.paumard.parallelstream;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Records how a parallel pipeline distributes its work: elements and leaves per worker,
+// splits, split depth, and leaves traversed by another thread than the one that split them (steals).
+// Each thread writes its own padded counters; nothing is shared until report() is called.
+public class WorkProfiler {
+
+    private final Queue<Counters> allCounters = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Counters> counters = ThreadLocal.withInitial(this::register);
+
+    private Counters register() {
+        Counters counters = new Counters(Thread.currentThread().getName());
+        allCounters.add(counters);
+        return counters;
+    }
+
+    public <T> Stream<T> profile(Stream<T> stream) {
+        return StreamSupport.stream(profile(stream.spliterator()), stream.isParallel());
+    }
+
+    public IntStream profile(IntStream stream) {
+        return StreamSupport.intStream(profile(stream.spliterator()), stream.isParallel());
+    }
+
+    public <T> Spliterator<T> profile(Spliterator<T> spliterator) {
+        return new ProfiledSpliterator<>(spliterator, 0);
+    }
+
+    public Spliterator.OfInt profile(Spliterator.OfInt spliterator) {
+        return new ProfiledIntSpliterator(spliterator, 0);
+    }
+
+    public void reset() {
+        allCounters.forEach(Counters::reset);
+    }
+
+    public Report report() {
+        List<WorkerStatistics> workers = new ArrayList<>();
+        for (Counters counters : allCounters) {
+            if (counters.elements > 0 || counters.leaves > 0 || counters.splits > 0) {
+                workers.add(new WorkerStatistics(counters.thread, counters.elements, counters.leaves,
+                        counters.splits, counters.steals, counters.maxDepth));
+            }
+        }
+        workers.sort(Comparator.comparing(WorkerStatistics::thread));
+        return new Report(workers);
+    }
+
+    // The padding keeps the counters of two threads on different cache lines.
+    @SuppressWarnings("unused")
+    static final class Counters {
+
+        long p01, p02, p03, p04, p05, p06, p07;
+
+        final String thread;
+        long elements;
+        long leaves;
+        long splits;
+        long steals;
+        int maxDepth;
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        Counters(String thread) {
+            this.thread = thread;
+        }
+
+        void reset() {
+            elements = leaves = splits = steals = maxDepth = 0;
+        }
+    }
+
+    private abstract class AbstractProfiledSpliterator<T, S extends Spliterator<T>> {
+
+        final S delegate;
+        int depth;
+        Thread owner = Thread.currentThread();
+        Counters traverser;
+
+        AbstractProfiledSpliterator(S delegate, int depth) {
+            this.delegate = delegate;
+            this.depth = depth;
+        }
+
+        void recordSplit() {
+            counters.get().splits++;
+            depth++;
+            owner = Thread.currentThread();
+        }
+
+        Counters enterLeaf() {
+            if (traverser == null) {
+                traverser = counters.get();
+                traverser.leaves++;
+                traverser.maxDepth = Math.max(traverser.maxDepth, depth);
+                if (owner != Thread.currentThread()) {
+                    traverser.steals++;
+                }
+            }
+            return traverser;
+        }
+
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        public long getExactSizeIfKnown() {
+            return delegate.getExactSizeIfKnown();
+        }
+
+        public int characteristics() {
+            return delegate.characteristics();
+        }
+
+        public Comparator<? super T> getComparator() {
+            return delegate.getComparator();
+        }
+    }
+
+    private final class ProfiledSpliterator<T> extends AbstractProfiledSpliterator<T, Spliterator<T>>
+            implements Spliterator<T> {
+
+        ProfiledSpliterator(Spliterator<T> delegate, int depth) {
+            super(delegate, depth);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<T> prefix = delegate.trySplit();
+            if (prefix == null) {
+                return null;
+            }
+            recordSplit();
+            return new ProfiledSpliterator<>(prefix, depth);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Counters counters = enterLeaf();
+            boolean advanced = delegate.tryAdvance(action);
+            if (advanced) {
+                counters.elements++;
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Counters counters = enterLeaf();
+            long[] count = {0L};
+            delegate.forEachRemaining(element -> {
+                count[0]++;
+                action.accept(element);
+            });
+            counters.elements += count[0];
+        }
+    }
+
+    private final class ProfiledIntSpliterator extends AbstractProfiledSpliterator<Integer, Spliterator.OfInt>
+            implements Spliterator.OfInt {
+
+        ProfiledIntSpliterator(Spliterator.OfInt delegate, int depth) {
+            super(delegate, depth);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            Spliterator.OfInt prefix = delegate.trySplit();
+            if (prefix == null) {
+                return null;
+            }
+            recordSplit();
+            return new ProfiledIntSpliterator(prefix, depth);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Counters counters = enterLeaf();
+            boolean advanced = delegate.tryAdvance(action);
+            if (advanced) {
+                counters.elements++;
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Counters counters = enterLeaf();
+            long[] count = {0L};
+            delegate.forEachRemaining((int element) -> {
+                count[0]++;
+                action.accept(element);
+            });
+            counters.elements += count[0];
+        }
+    }
+
+    public static final class WorkerStatistics {
+
+        private final String thread;
+        private final long elements;
+        private final long leaves;
+        private final long splits;
+        private final long steals;
+        private final int maxDepth;
+
+        WorkerStatistics(String thread, long elements, long leaves, long splits, long steals, int maxDepth) {
+            this.thread = thread;
+            this.elements = elements;
+            this.leaves = leaves;
+            this.splits = splits;
+            this.steals = steals;
+            this.maxDepth = maxDepth;
+        }
+
+        public String thread() {
+            return thread;
+        }
+
+        public long elements() {
+            return elements;
+        }
+
+        public long leaves() {
+            return leaves;
+        }
+
+        public long splits() {
+            return splits;
+        }
+
+        public long steals() {
+            return steals;
+        }
+
+        public int maxDepth() {
+            return maxDepth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s elements = %10d, leaves = %5d, splits = %5d, steals = %5d, max depth = %3d",
+                    thread, elements, leaves, splits, steals, maxDepth);
+        }
+    }
+
+    public static final class Report {
+
+        private final List<WorkerStatistics> workers;
+
+        Report(List<WorkerStatistics> workers) {
+            this.workers = List.copyOf(workers);
+        }
+
+        public List<WorkerStatistics> workers() {
+            return workers;
+        }
+
+        public long elements() {
+            return workers.stream().mapToLong(WorkerStatistics::elements).sum();
+        }
+
+        public long leaves() {
+            return workers.stream().mapToLong(WorkerStatistics::leaves).sum();
+        }
+
+        public long steals() {
+            return workers.stream().mapToLong(WorkerStatistics::steals).sum();
+        }
+
+        // Elements processed by the busiest worker over the mean per worker; 1.0 is a perfect balance.
+        public double imbalance() {
+            if (workers.isEmpty() || elements() == 0) {
+                return 1d;
+            }
+            long max = workers.stream().mapToLong(WorkerStatistics::elements).max().getAsLong();
+            return max / (elements() / (double) workers.size());
+        }
+
+        public void print(PrintStream out) {
+            workers.forEach(out::println);
+            out.printf("workers = %d, elements = %d, leaves = %d, steals = %d, imbalance = %.2f%n",
+                    workers.size(), elements(), leaves(), steals(), imbalance());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("workers = %d, elements = %d, leaves = %d, steals = %d, imbalance = %.2f",
+                    workers.size(), elements(), leaves(), steals(), imbalance());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.paumard.parallelstream;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class M03_VectorKernels {
+
+    private Random random = new Random();
+
+    @Param({"100000", "10000000"})
+    private int N;
+
+    private int[] ints;
+    private int[] result;
+
+    @Setup
+    public void setup() {
+        ints = IntStream.range(0, N)
+                .map(index -> random.nextInt(100))
+                .toArray();
+        result = new int[N];
+    }
+
+    @Benchmark
+    public int sum_of_range_stream() {
+        return IntStream.range(0, N)
+                .map(i -> i*3)
+                .map(i -> i*7)
+                .sum();
+    }
+
+    @Benchmark
+    public int sum_of_range_stream_parallel() {
+        return IntStream.range(0, N)
+                .parallel()
+                .map(i -> i*3)
+                .map(i -> i*7)
+                .sum();
+    }
+
+    @Benchmark
+    public int sum_of_range_vector() {
+        return VectorKernels.sumOfRange(0, N, 3*7);
+    }
+
+    @Benchmark
+    public int sum_of_range_vector_parallel() {
+        return VectorKernels.sumOfRangeParallel(0, N, 3*7);
+    }
+
+    @Benchmark
+    public int sum_scalar() {
+        int sum = 0;
+        for (int i = 0; i < ints.length; i++) {
+            sum += ints[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sum_stream_parallel() {
+        return IntStream.of(ints).parallel().sum();
+    }
+
+    @Benchmark
+    public int sum_vector() {
+        return VectorKernels.sum(ints);
+    }
+
+    @Benchmark
+    public int sum_vector_parallel() {
+        return VectorKernels.sumParallel(ints);
+    }
+
+    @Benchmark
+    public int max_scalar() {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < ints.length; i++) {
+            max = Math.max(max, ints[i]);
+        }
+        return max;
+    }
+
+    @Benchmark
+    public int max_stream_parallel() {
+        return IntStream.of(ints).parallel().max().getAsInt();
+    }
+
+    @Benchmark
+    public int max_vector() {
+        return VectorKernels.max(ints);
+    }
+
+    @Benchmark
+    public int max_vector_parallel() {
+        return VectorKernels.maxParallel(ints);
+    }
+
+    @Benchmark
+    public int sum_of_products_scalar() {
+        int sum = 0;
+        for (int i = 0; i < ints.length; i++) {
+            sum += ints[i]*5;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sum_of_products_vector() {
+        return VectorKernels.sumOfProducts(ints, 5);
+    }
+
+    @Benchmark
+    public int sum_of_products_vector_parallel() {
+        return VectorKernels.sumOfProductsParallel(ints, 5);
+    }
+
+    @Benchmark
+    public int[] multiply_scalar() {
+        for (int i = 0; i < ints.length; i++) {
+            result[i] = ints[i]*5;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] multiply_vector() {
+        VectorKernels.multiply(ints, 5, result);
+        return result;
+    }
+
+    @Benchmark
+    public int[] multiply_vector_parallel() {
+        VectorKernels.multiplyParallel(ints, 5, result);
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(M03_VectorKernels.class.getName())
+                .build();
+        new Runner(opt).run();
+    }
+}
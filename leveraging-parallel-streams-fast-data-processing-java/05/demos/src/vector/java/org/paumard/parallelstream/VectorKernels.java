@@ -0,0 +1,144 @@
+package org.paumard.parallelstream;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.stream.IntStream;
+
+// Explicit SIMD versions of the int kernels of M03 and M04, with the jdk.incubator.vector module.
+// Each kernel has a sequential version and a parallel one, that runs the sequential one on
+// fixed-size chunks from a parallel IntStream.
+public final class VectorKernels {
+
+    static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private VectorKernels() {
+    }
+
+    public static int sum(int[] values) {
+        return sum(values, 0, values.length);
+    }
+
+    public static int sum(int[] values, int from, int to) {
+        IntVector sums = IntVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            sums = sums.add(IntVector.fromArray(SPECIES, values, i));
+        }
+        int sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    public static int sumParallel(int[] values) {
+        return chunks(values.length)
+                .map(chunk -> sum(values, chunkStart(chunk), chunkEnd(chunk, values.length)))
+                .sum();
+    }
+
+    public static int max(int[] values) {
+        return max(values, 0, values.length);
+    }
+
+    public static int max(int[] values, int from, int to) {
+        IntVector maxs = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            maxs = maxs.max(IntVector.fromArray(SPECIES, values, i));
+        }
+        int max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    public static int maxParallel(int[] values) {
+        return chunks(values.length)
+                .map(chunk -> max(values, chunkStart(chunk), chunkEnd(chunk, values.length)))
+                .max()
+                .orElse(Integer.MIN_VALUE);
+    }
+
+    public static void multiply(int[] values, int factor, int[] result) {
+        multiply(values, factor, result, 0, values.length);
+    }
+
+    public static void multiply(int[] values, int factor, int[] result, int from, int to) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, values, i).mul(factor).intoArray(result, i);
+        }
+        for (; i < to; i++) {
+            result[i] = values[i] * factor;
+        }
+    }
+
+    public static void multiplyParallel(int[] values, int factor, int[] result) {
+        chunks(values.length)
+                .forEach(chunk -> multiply(values, factor, result, chunkStart(chunk), chunkEnd(chunk, values.length)));
+    }
+
+    // Sum of values[i] * factor, the map(i -> i * factor).sum() pipeline.
+    public static int sumOfProducts(int[] values, int factor) {
+        return sumOfProducts(values, factor, 0, values.length);
+    }
+
+    public static int sumOfProducts(int[] values, int factor, int from, int to) {
+        IntVector sums = IntVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            sums = sums.add(IntVector.fromArray(SPECIES, values, i).mul(factor));
+        }
+        int sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i] * factor;
+        }
+        return sum;
+    }
+
+    public static int sumOfProductsParallel(int[] values, int factor) {
+        return chunks(values.length)
+                .map(chunk -> sumOfProducts(values, factor, chunkStart(chunk), chunkEnd(chunk, values.length)))
+                .sum();
+    }
+
+    // Sum of i * factor for i in [from, to), the IntStream.range(from, to).map(i -> i * factor).sum() pipeline.
+    public static int sumOfRange(int from, int to, int factor) {
+        IntVector indexes = IntVector.zero(SPECIES).addIndex(1).add(from);
+        IntVector step = IntVector.broadcast(SPECIES, SPECIES.length());
+        IntVector sums = IntVector.zero(SPECIES);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            sums = sums.add(indexes.mul(factor));
+            indexes = indexes.add(step);
+        }
+        int sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += i * factor;
+        }
+        return sum;
+    }
+
+    public static int sumOfRangeParallel(int from, int to, int factor) {
+        return chunks(to - from)
+                .map(chunk -> sumOfRange(from + chunkStart(chunk), from + chunkEnd(chunk, to - from), factor))
+                .sum();
+    }
+
+    private static IntStream chunks(int length) {
+        return IntStream.range(0, (int) (((long) length + CHUNK_SIZE - 1) / CHUNK_SIZE)).parallel();
+    }
+
+    private static int chunkStart(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    private static int chunkEnd(int chunk, int length) {
+        return Math.min(length, chunkStart(chunk) + CHUNK_SIZE);
+    }
+}